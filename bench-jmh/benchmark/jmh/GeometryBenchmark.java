@@ -0,0 +1,137 @@
+package benchmark.jmh;
+
+import geometry.Circle;
+import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physics.Velocity;
+import util.Constants;
+import util.LineUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the geometry primitives the collision code is built from.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    private Line line;
+    private Line crossing;
+    private Line apart;
+    private Circle onEdge;
+    private Circle onVertex;
+    private Rectangle rectangle;
+    private Point hitPoint;
+    private Velocity hitVelocity;
+
+    /**
+     * Creates the shapes the benchmarks work on.
+     */
+    @Setup
+    public void setup() {
+        this.line = new Line(0, 0, 100, 50);
+        this.crossing = new Line(0, 50, 100, 0);
+        this.apart = new Line(0, 60, 100, 110);
+        this.onEdge = new Circle(50, 25 - Constants.BALL_RADIUS / 2.0, Constants.BALL_RADIUS);
+        this.onEdge.setVelocity(0, Constants.BALL_SPEED);
+        this.onVertex = new Circle(100 + Constants.BALL_RADIUS / 2.0, 50 + Constants.BALL_RADIUS / 2.0,
+                Constants.BALL_RADIUS);
+        this.onVertex.setVelocity(-Constants.BALL_SPEED, -Constants.BALL_SPEED);
+        this.rectangle = new Rectangle(200, 200, 240, 220);
+        this.hitPoint = new Point(220, 200 - Constants.BALL_RADIUS / 2.0);
+        this.hitVelocity = new Velocity(0, Constants.BALL_SPEED);
+    }
+
+    /**
+     * @return whether two crossing lines intersect
+     */
+    @Benchmark
+    public boolean lineIsIntersecting() {
+        return this.line.isIntersecting(this.crossing);
+    }
+
+    /**
+     * @return whether two lines that do not cross intersect
+     */
+    @Benchmark
+    public boolean lineIsIntersectingMiss() {
+        return this.line.isIntersecting(this.apart);
+    }
+
+    /**
+     * @return the intersection point of two crossing lines
+     */
+    @Benchmark
+    public Point lineIntersectionWith() {
+        return this.line.intersectionWith(this.crossing);
+    }
+
+    /**
+     * @return how a circle touching the middle of a line intersects it
+     */
+    @Benchmark
+    public Circle.IntersectionType circleIntersectionTypeEdge() {
+        return this.onEdge.intersectionType(this.line);
+    }
+
+    /**
+     * @return how a circle touching the end of a line intersects it
+     */
+    @Benchmark
+    public Circle.IntersectionType circleIntersectionTypeVertex() {
+        return this.onVertex.intersectionType(this.line);
+    }
+
+    /**
+     * @return the velocity of a ball after hitting the top edge of a rectangle
+     */
+    @Benchmark
+    public Velocity polygonHit() {
+        return this.rectangle.hit(this.hitPoint, this.hitVelocity);
+    }
+
+    /**
+     * @param edges the edges of the blocks of a level
+     * @return the merged edges of all the blocks of a level
+     */
+    @Benchmark
+    public List<Line> mergeLines(Edges edges) {
+        return LineUtils.mergeLines(edges.edges);
+    }
+
+    /**
+     * The edges of the blocks of a level, for every number of blocks. Only the benchmarks that take it run once
+     * per number of blocks.
+     */
+    @State(Scope.Thread)
+    public static class Edges {
+        @Param({"36", "150", "600"})
+        private int blocks;
+        private List<Line> edges;
+
+        /**
+         * Creates the edges of the blocks.
+         */
+        @Setup
+        public void setup() {
+            this.edges = new Scene(0, this.blocks).getEdges();
+        }
+    }
+}
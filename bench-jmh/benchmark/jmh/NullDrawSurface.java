@@ -0,0 +1,96 @@
+package benchmark.jmh;
+
+import biuoop.DrawSurface;
+import org.openjdk.jmh.infra.Blackhole;
+import util.Constants;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * A draw surface that draws nothing, and only feeds its arguments to a blackhole, so drawing code can be
+ * measured without the cost of a real surface.
+ */
+public class NullDrawSurface implements DrawSurface {
+    private final Blackhole blackhole;
+
+    /**
+     * Constructor.
+     *
+     * @param blackhole the blackhole to consume the drawing arguments
+     */
+    public NullDrawSurface(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public int getWidth() {
+        return Constants.WIDTH;
+    }
+
+    @Override
+    public int getHeight() {
+        return Constants.HEIGHT;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        this.blackhole.consume(color);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.blackhole.consume(x1 ^ y1 ^ x2 ^ y2);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        this.blackhole.consume(x ^ y ^ width ^ height);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        this.blackhole.consume(x ^ y ^ width ^ height);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        this.blackhole.consume(x ^ y ^ width ^ height);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        this.blackhole.consume(x ^ y ^ width ^ height);
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        this.blackhole.consume(image);
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int radius) {
+        this.blackhole.consume(x ^ y ^ radius);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int radius) {
+        this.blackhole.consume(x ^ y ^ radius);
+    }
+
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        this.blackhole.consume(text);
+    }
+
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        this.blackhole.consume(polygon);
+    }
+
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        this.blackhole.consume(polygon);
+    }
+}
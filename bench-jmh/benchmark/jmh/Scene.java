@@ -0,0 +1,178 @@
+package benchmark.jmh;
+
+import geometry.Line;
+import geometry.Rectangle;
+import graphics.Ball;
+import graphics.BallStore;
+import graphics.Block;
+import graphics.SpriteCollection;
+import main.GameEnvironment;
+import util.Constants;
+import util.LineUtils;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A level like the Ass5Game one, with a given number of balls and blocks, built without a game or a GUI.
+ * The blocks fill the top half of the level and collide through their merged edges, like in the game.
+ * The balls start in the bottom half in random directions, and are kept in the level by its border.
+ * The balls are either ball objects, or the balls of a single {@link BallStore}.
+ */
+public class Scene {
+    private static final int BORDER = 20;
+    private static final long SEED = 326552304;
+    private final GameEnvironment environment;
+    private final SpriteCollection sprites;
+    private final List<Ball> balls;
+    private final List<Block> blocks;
+    private final List<Line> edges;
+    private final BallStore store;
+
+    /**
+     * Constructor for a level with ball objects.
+     *
+     * @param numBalls  the number of balls in the level
+     * @param numBlocks the number of blocks in the level
+     */
+    public Scene(int numBalls, int numBlocks) {
+        this(numBalls, numBlocks, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numBalls  the number of balls in the level
+     * @param numBlocks the number of blocks in the level
+     * @param stored    whether the balls are kept in a ball store instead of as ball objects.
+     *                  both kinds of balls start the same way and move the same way.
+     */
+    public Scene(int numBalls, int numBlocks, boolean stored) {
+        this.environment = new GameEnvironment();
+        this.sprites = new SpriteCollection();
+        this.store = stored ? new BallStore() : null;
+        if (stored) {
+            this.environment.addBallStore(this.store);
+            this.sprites.addSprite(this.store, 2);
+        }
+        this.balls = new ArrayList<>();
+        this.blocks = new ArrayList<>();
+        Rectangle level = new Rectangle(BORDER, BORDER, Constants.WIDTH - BORDER, Constants.HEIGHT - BORDER);
+        for (Line line : level.getLines()) {
+            this.environment.addCollidable(line);
+        }
+        double areaHeight = level.getHeight() / 2;
+        int cols = (int) Math.ceil(Math.sqrt(numBlocks * level.getWidth() / areaHeight));
+        int rows = (int) Math.ceil((double) numBlocks / cols);
+        double width = level.getWidth() / cols;
+        double height = areaHeight / rows;
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < numBlocks; i++) {
+            double x = BORDER + (i % cols) * width;
+            double y = BORDER + (double) (i / cols) * height;
+            Block block = new Block(x, y, x + width, y + height, Color.getHSBColor((float) i / numBlocks, 1, 0.9f));
+            this.blocks.add(block);
+            this.sprites.addSprite(block, 1);
+            for (Line line : block.getLines()) {
+                lines.add(line);
+            }
+        }
+        this.edges = lines;
+        for (Line line : LineUtils.mergeLines(dropSharedEdges(lines))) {
+            this.environment.addCollidable(line);
+        }
+        Random random = new Random(SEED);
+        for (int i = 0; i < numBalls; i++) {
+            double x = BORDER + Constants.BALL_RADIUS
+                    + random.nextDouble() * (level.getWidth() - 2 * Constants.BALL_RADIUS);
+            double y = BORDER + areaHeight + Constants.BALL_RADIUS
+                    + random.nextDouble() * (areaHeight - 2 * Constants.BALL_RADIUS);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double vx = Math.cos(angle) * Constants.BALL_SPEED;
+            double vy = Math.sin(angle) * Constants.BALL_SPEED;
+            if (stored) {
+                this.store.add(x, y, Constants.BALL_RADIUS, vx, vy, Color.WHITE);
+                continue;
+            }
+            Ball ball = new Ball(x, y, Constants.BALL_RADIUS, Color.WHITE);
+            ball.setVelocity(vx, vy);
+            this.balls.add(ball);
+            this.environment.addColliding(ball);
+            this.sprites.addSprite(ball, 2);
+        }
+    }
+
+    /**
+     * @param lines the edges of the blocks
+     * @return the edges that are not shared by two blocks, the same way the game computes them
+     */
+    private static List<Line> dropSharedEdges(List<Line> lines) {
+        List<Line> kept = new ArrayList<>();
+        for (Line line : lines) {
+            boolean shared = false;
+            for (int i = 0; i < kept.size(); i++) {
+                if (kept.get(i).equals(line)) {
+                    kept.remove(i);
+                    shared = true;
+                    break;
+                }
+            }
+            if (!shared) {
+                kept.add(line);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Runs a frame of the level: the collisions, and then the step of every sprite.
+     */
+    public void step() {
+        this.environment.update();
+        this.sprites.notifyAllTimePassed();
+    }
+
+    /**
+     * @return the collision environment of the level
+     */
+    public GameEnvironment getEnvironment() {
+        return this.environment;
+    }
+
+    /**
+     * @return the sprites of the level
+     */
+    public SpriteCollection getSprites() {
+        return this.sprites;
+    }
+
+    /**
+     * @return the ball objects of the level. empty if the balls are kept in a store.
+     */
+    public List<Ball> getBalls() {
+        return this.balls;
+    }
+
+    /**
+     * @return the store of the balls of the level, or null if the balls are ball objects
+     */
+    public BallStore getBallStore() {
+        return this.store;
+    }
+
+    /**
+     * @return the blocks of the level
+     */
+    public List<Block> getBlocks() {
+        return this.blocks;
+    }
+
+    /**
+     * @return the edges of all the blocks, before the shared ones are dropped and the rest are merged
+     */
+    public List<Line> getEdges() {
+        return this.edges;
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a whole frame of a level, for every combination of the number of balls and blocks,
+ * with the balls as ball objects and as the balls of a store, and with the blocks drawn directly and from the
+ * cached image of a static layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneBenchmark {
+    @Param({"2", "16", "64", "1024"})
+    private int balls;
+    @Param({"36", "150", "600"})
+    private int blocks;
+    @Param({"false", "true"})
+    private boolean stored;
+    private Scene scene;
+
+    /**
+     * Creates a fresh level for every iteration, so every iteration measures the same frames.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.scene = new Scene(this.balls, this.blocks, this.stored);
+    }
+
+    /**
+     * Finds and applies the collisions of a frame, and then moves the balls so the next frame differs.
+     */
+    @Benchmark
+    public void environmentUpdate() {
+        this.scene.step();
+    }
+
+    /**
+     * Draws all the sprites of the level.
+     *
+     * @param drawing the surface to draw on
+     */
+    @Benchmark
+    public void drawAllOn(Drawing drawing) {
+        this.scene.getSprites().drawAllOn(drawing.surface);
+    }
+
+    /**
+     * The surface the level is drawn on, with the blocks drawn directly or from the cached image of a static
+     * layer. Only the benchmarks that draw take it, so the others do not run once per way of drawing the blocks.
+     */
+    @State(Scope.Thread)
+    public static class Drawing {
+        @Param({"false", "true"})
+        private boolean cached;
+        private NullDrawSurface surface;
+
+        /**
+         * Sets how the blocks of the fresh level of the iteration are drawn.
+         *
+         * @param benchmark the benchmark whose level is drawn
+         * @param blackhole the blackhole to draw into
+         */
+        @Setup(Level.Iteration)
+        public void setup(SceneBenchmark benchmark, Blackhole blackhole) {
+            benchmark.scene.getSprites().setStatic(1, this.cached);
+            this.surface = new NullDrawSurface(blackhole);
+        }
+    }
+}
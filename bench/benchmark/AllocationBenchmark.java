@@ -0,0 +1,47 @@
+package benchmark;
+
+import biuoop.KeyboardSensor;
+import main.Ass5Game;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how many bytes a frame of the Ass5Game level allocates.
+ * The level is run without a GUI, and only the frames before the balls first reach the blocks are measured,
+ * so every measured frame does the same work.
+ */
+public class AllocationBenchmark {
+    private static final int WARMUP_GAMES = 200;
+    private static final int FRAMES = 150;
+    private static final KeyboardSensor NO_KEYS = key -> false;
+
+    /**
+     * Runs the benchmark and prints the average number of bytes allocated per frame.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_GAMES; i++) {
+            runFrames(newGame());
+        }
+        Ass5Game game = newGame();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        runFrames(game);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.printf("%d frames, %d bytes, %.1f bytes/frame%n", FRAMES, allocated, (double) allocated / FRAMES);
+    }
+
+    private static Ass5Game newGame() {
+        Ass5Game game = new Ass5Game();
+        game.initialize(NO_KEYS);
+        return game;
+    }
+
+    private static void runFrames(Ass5Game game) {
+        for (int i = 0; i < FRAMES; i++) {
+            game.update();
+        }
+    }
+}
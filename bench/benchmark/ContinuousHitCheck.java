@@ -0,0 +1,73 @@
+package benchmark;
+
+import biuoop.KeyboardSensor;
+import collision.CircleCollider;
+import collision.Collidable;
+import graphics.Ball;
+import graphics.Block;
+import main.Ass5Game;
+import util.Constants;
+
+import java.awt.Color;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that queued hits of balls in continuous collision mode still remove the blocks they score for.
+ * Extra balls in continuous mode are added to the Ass5Game level, which is run without a GUI and never ends.
+ * Every hit that scores must also remove its block, so the score must be 5 points per removed block.
+ */
+public class ContinuousHitCheck {
+    private static final int BALLS = 40;
+    private static final int TICKS = 400;
+    private static final int BALL_LAYER = 2;
+    private static final long SEED = 17;
+    private static final KeyboardSensor NO_KEYS = key -> false;
+
+    /**
+     * Runs the check, and exits with a non-zero status if it fails.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        CheckedGame game = new CheckedGame();
+        game.initialize(NO_KEYS);
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < BALLS; i++) {
+            Ball ball = new Ball(random.nextDouble(60, Constants.WIDTH - 60),
+                    random.nextDouble(320, Constants.HEIGHT - 120), Constants.BALL_RADIUS, Color.WHITE);
+            double angle = random.nextDouble(Math.PI * 2);
+            ball.setVelocity(Math.cos(angle) * Constants.BALL_SPEED, Math.sin(angle) * Constants.BALL_SPEED);
+            ball.getCollider().setMode(CircleCollider.Mode.CONTINUOUS);
+            game.addSprite(ball, BALL_LAYER);
+            game.addColliding(ball);
+        }
+        for (int i = 0; i < TICKS; i++) {
+            game.update();
+        }
+        int score = game.getScore().getValue();
+        System.out.printf("%d blocks removed, score %d%n", game.removed, score);
+        if (game.removed == 0 || score != game.removed * 5) {
+            System.out.println("FAILED: every scored hit should remove its block");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The Ass5Game level, counting the blocks it removes and never ending.
+     */
+    private static final class CheckedGame extends Ass5Game {
+        private int removed = 0;
+
+        @Override
+        public void removeCollidable(Collidable c) {
+            super.removeCollidable(c);
+            if (c instanceof Block) {
+                this.removed++;
+            }
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import biuoop.KeyboardSensor;
+import collision.CircleCollider;
+import geometry.Line;
+import graphics.Ball;
+import main.Ass5Game;
+import main.GameEnvironment;
+import util.Constants;
+import util.MathUtils;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that balls in continuous collision mode keep their speed when they bounce off corners.
+ * A ball is sent diagonally into the corner four lines share from outside of them, with every broad phase, and
+ * extra balls in continuous mode are run in the Ass5Game level, which is run without a GUI and never ends.
+ */
+public class CornerBounceCheck {
+    private static final double CORNER_X = 400;
+    private static final double CORNER_Y = 300;
+    private static final double EDGE_LENGTH = 100;
+    private static final int CORNER_TICKS = 60;
+    private static final int BALLS = 40;
+    private static final int TICKS = 4000;
+    private static final int BALL_LAYER = 2;
+    private static final long SEED = 17;
+    private static final KeyboardSensor NO_KEYS = key -> false;
+
+    /**
+     * Runs the check, and exits with a non-zero status if it fails.
+     *
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        boolean failed = false;
+        for (GameEnvironment.BroadPhase broadPhase : GameEnvironment.BroadPhase.values()) {
+            double speed = cornerSpeed(broadPhase);
+            System.out.printf("%s: top speed %.3f after the corner%n", broadPhase, speed);
+            failed |= speed > Constants.BALL_SPEED + MathUtils.COMPARISON_THRESHOLD;
+        }
+        double speed = levelSpeed();
+        System.out.printf("level: top speed %.3f%n", speed);
+        failed |= speed > Constants.BALL_SPEED + MathUtils.COMPARISON_THRESHOLD;
+        if (failed) {
+            System.out.println("FAILED: bouncing off a corner should keep the speed of the ball");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param broadPhase the broad phase of the environment
+     * @return the top speed of a ball sent diagonally into the corner four lines share
+     */
+    private static double cornerSpeed(GameEnvironment.BroadPhase broadPhase) {
+        GameEnvironment environment = new GameEnvironment(broadPhase);
+        // the lines all leave the corner away from the ball, so the corner is the closest point of each of them
+        environment.addCollidable(new Line(CORNER_X, CORNER_Y, CORNER_X + EDGE_LENGTH, CORNER_Y));
+        environment.addCollidable(new Line(CORNER_X, CORNER_Y, CORNER_X, CORNER_Y + EDGE_LENGTH));
+        environment.addCollidable(new Line(CORNER_X, CORNER_Y, CORNER_X + EDGE_LENGTH, CORNER_Y + EDGE_LENGTH));
+        environment.addCollidable(new Line(CORNER_X, CORNER_Y, CORNER_X + EDGE_LENGTH / 2, CORNER_Y + EDGE_LENGTH));
+        Ball ball = new Ball(CORNER_X - EDGE_LENGTH / 2, CORNER_Y - EDGE_LENGTH / 2, Constants.BALL_RADIUS,
+                Color.WHITE);
+        double along = Constants.BALL_SPEED / Math.sqrt(2);
+        ball.setVelocity(along, along);
+        ball.getCollider().setMode(CircleCollider.Mode.CONTINUOUS);
+        environment.addColliding(ball);
+        double top = 0;
+        for (int i = 0; i < CORNER_TICKS; i++) {
+            environment.update();
+            top = Math.max(top, ball.getVelocity().getSpeed());
+        }
+        return top;
+    }
+
+    /**
+     * @return the top speed of the balls in continuous mode that were added to the Ass5Game level
+     */
+    private static double levelSpeed() {
+        Ass5Game game = new Ass5Game() {
+            @Override
+            public void end() {
+            }
+        };
+        game.initialize(NO_KEYS);
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Ball> balls = new ArrayList<>();
+        for (int i = 0; i < BALLS; i++) {
+            Ball ball = new Ball(random.nextDouble(60, Constants.WIDTH - 60),
+                    random.nextDouble(320, Constants.HEIGHT - 120), Constants.BALL_RADIUS, Color.WHITE);
+            double angle = random.nextDouble(Math.PI * 2);
+            ball.setVelocity(Math.cos(angle) * Constants.BALL_SPEED, Math.sin(angle) * Constants.BALL_SPEED);
+            ball.getCollider().setMode(CircleCollider.Mode.CONTINUOUS);
+            game.addSprite(ball, BALL_LAYER);
+            game.addColliding(ball);
+            balls.add(ball);
+        }
+        double top = 0;
+        for (int i = 0; i < TICKS; i++) {
+            game.update();
+            for (Ball ball : balls) {
+                top = Math.max(top, ball.getVelocity().getSpeed());
+            }
+        }
+        return top;
+    }
+}
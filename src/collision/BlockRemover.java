@@ -34,7 +34,21 @@ public class BlockRemover implements HitListener {
      */
     @Override
     public void hitEvent(Block beingHit, Ball hitter) {
-        if (hitter.isIntersecting(beingHit) && !hitter.getColor().equals(beingHit.getColor())) {
+        hitEvent(beingHit, hitter, hitter.isIntersecting(beingHit));
+    }
+
+    /**
+     * This method is called whenever a block is hit by a ball.
+     * If the ball touched the block when it hit it and the ball's color does not match the block's color, the
+     * block is removed from the game, and the remaining blocks counter is decreased.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     * @param touching true if the ball intersected the block when the hit happened, false otherwise
+     */
+    @Override
+    public void hitEvent(Block beingHit, Ball hitter, boolean touching) {
+        if (touching && !hitter.getColor().equals(beingHit.getColor())) {
             hitter.setColor(beingHit.getColor());
             beingHit.removeFromGame(this.game);
             this.remainingBlocks.decrease(1);
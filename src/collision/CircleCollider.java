@@ -2,12 +2,18 @@ package collision;
 
 import geometry.Circle;
 import geometry.Line;
+import geometry.Point;
+import physics.Velocity;
+import util.Constants;
 
 /**
  * This class represents a collider for a ball.
  */
 public class CircleCollider extends Collider<Circle> {
+    private final Point lastCenter = new Point(0, 0);
+    private final Velocity velocity = new Velocity(0, 0);
     private int count = 0;
+    private Mode mode = Constants.CONTINUOUS_COLLISIONS ? Mode.CONTINUOUS : Mode.DISCRETE;
 
     /**
      * Constructor.
@@ -18,6 +24,22 @@ public class CircleCollider extends Collider<Circle> {
         super(shape);
     }
 
+    /**
+     * @return the way the collisions of the ball are detected
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Sets the way the collisions of the ball are detected.
+     *
+     * @param mode the mode to use
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
     /**
      * Collides with a collidable.
      *
@@ -26,8 +48,13 @@ public class CircleCollider extends Collider<Circle> {
     @Override
     public void defaultCollide(Collidable object) {
         this.count++;
-        change(object.hit(this.getShape().getLastCenter(), this.getShape().getVelocity())
-                .subtract(this.getShape().getVelocity()));
+        // the collidable may keep or change the point and velocity it gets, so it gets reused copies
+        double vx = this.getShape().getVelocityX();
+        double vy = this.getShape().getVelocityY();
+        this.lastCenter.move(this.getShape().getLastX(), this.getShape().getLastY());
+        this.velocity.move(vx, vy);
+        Velocity result = object.hit(this.getContext(), this.lastCenter, this.velocity);
+        change(result.getX() - vx, result.getY() - vy);
     }
 
     /**
@@ -53,4 +80,14 @@ public class CircleCollider extends Collider<Circle> {
         }
         super.apply();
     }
+
+    /**
+     * The ways the collisions of a ball are detected.
+     * In discrete mode the ball moves a whole step, and bounces off whatever it overlaps after the step.
+     * In continuous mode the environment moves the ball itself: it stops the ball at the earliest contact within
+     * the step, bounces it, and continues the rest of the step, so fast balls do not pass through thin shapes.
+     */
+    public enum Mode {
+        DISCRETE, CONTINUOUS
+    }
 }
@@ -27,4 +27,28 @@ public interface Collidable extends Shape {
      * @return the new velocity of the object after the collision
      */
     Velocity hit(Point collisionPoint, Velocity collisionVelocity);
+
+    /**
+     * This method is called when the object collides with another object, with the context of the hit.
+     * By default, the context is ignored.
+     *
+     * @param context           the context of the hit, which holds the object that hit this object
+     * @param collisionPoint    the point of collision
+     * @param collisionVelocity the velocity of the object at the time of collision
+     * @return the new velocity of the object after the collision
+     */
+    default Velocity hit(HitContext context, Point collisionPoint, Velocity collisionVelocity) {
+        return hit(collisionPoint, collisionVelocity);
+    }
+
+    /**
+     * Whether a circle in continuous collision mode that hits a vertex of the object bounces off the vertex itself,
+     * along the normal from the vertex to its center, instead of with the velocity
+     * {@link #hit(HitContext, Point, Velocity)} returns. By default, the returned velocity is kept.
+     *
+     * @return true if the circle bounces off the vertices of the object, false otherwise
+     */
+    default boolean bouncesOffVertices() {
+        return false;
+    }
 }
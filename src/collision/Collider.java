@@ -12,6 +12,7 @@ import physics.Velocity;
 public abstract class Collider<T extends Colliding> {
     private final T shape;
     private final Velocity changed;
+    private final HitContext context;
 
     /**
      * Constructor.
@@ -21,6 +22,7 @@ public abstract class Collider<T extends Colliding> {
     public Collider(T shape) {
         this.shape = shape;
         this.changed = shape.getVelocity();
+        this.context = new HitContext(shape);
     }
 
     /**
@@ -32,6 +34,16 @@ public abstract class Collider<T extends Colliding> {
         this.changed.transform(velocity);
     }
 
+    /**
+     * Changes the velocity of the shape.
+     *
+     * @param dx the change in the x coordinate of the velocity
+     * @param dy the change in the y coordinate of the velocity
+     */
+    protected void change(double dx, double dy) {
+        this.changed.transform(dx, dy);
+    }
+
     /**
      * Collides with a collidable.
      *
@@ -64,6 +76,13 @@ public abstract class Collider<T extends Colliding> {
         return this.shape;
     }
 
+    /**
+     * @return the context that is passed to every collidable the shape hits
+     */
+    public HitContext getContext() {
+        return this.context;
+    }
+
     /**
      * Applies the changes to the shape.
      */
@@ -75,6 +94,6 @@ public abstract class Collider<T extends Colliding> {
      * Updates the speed of the shape.
      */
     public void updateSpeed() {
-        this.changed.move(this.shape.getVelocity());
+        this.changed.move(this.shape.getVelocityX(), this.shape.getVelocityY());
     }
 }
@@ -0,0 +1,143 @@
+package collision;
+
+import geometry.Line;
+import geometry.LineKey;
+import geometry.Polygon;
+import util.LineUtils;
+import util.ValueMap;
+import util.ValueSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The collision edges of a set of polygons: every edge that is not shared by two of the polygons, with
+ * collinear edges that touch merged into a single line.
+ * The edges are grouped by the line they lie on, so adding or removing a polygon only re-merges the lines of
+ * its own edges, and the result is the same as rebuilding everything from scratch.
+ */
+public class CollisionEdges {
+    private final Set<Polygon> polygons;
+    private final Map<LineKey, Group> groups;
+    private final List<Group> dirty;
+
+    /**
+     * Constructor.
+     */
+    public CollisionEdges() {
+        this.polygons = new ValueSet<>();
+        this.groups = new ValueMap<>(true);
+        this.dirty = new ArrayList<>();
+    }
+
+    /**
+     * Adds the edges of a polygon. An edge that is shared with a polygon that is already added is hidden.
+     * The polygon must not move while it is added.
+     *
+     * @param polygon the polygon to add
+     * @return true if the polygon was added, false if it was already added
+     */
+    public boolean add(Polygon polygon) {
+        if (!this.polygons.add(polygon)) {
+            return false;
+        }
+        toggle(polygon);
+        return true;
+    }
+
+    /**
+     * Removes the edges of a polygon. An edge that was shared with another polygon is exposed again.
+     *
+     * @param polygon the polygon to remove
+     * @return true if the polygon was removed, false if it was not added
+     */
+    public boolean remove(Polygon polygon) {
+        if (!this.polygons.remove(polygon)) {
+            return false;
+        }
+        toggle(polygon);
+        return true;
+    }
+
+    /**
+     * Removes all the polygons. The lines that were merged so far are not reported by {@link #update}.
+     */
+    public void clear() {
+        this.polygons.clear();
+        this.groups.clear();
+        this.dirty.clear();
+    }
+
+    /**
+     * Re-merges the lines that were changed by the polygons that were added or removed since the last update.
+     * Lines that no longer have any edges are dropped.
+     *
+     * @param removed the list to add the merged lines that are no longer edges to
+     * @param added   the list to add the new merged lines to
+     */
+    public void update(List<Line> removed, List<Line> added) {
+        for (Group group : this.dirty) {
+            removed.addAll(group.merged);
+            group.merged = group.edges.isEmpty() ? List.of() : LineUtils.mergeLines(new ArrayList<>(group.edges));
+            added.addAll(group.merged);
+            group.dirty = false;
+            if (group.edges.isEmpty()) {
+                this.groups.remove(group.key);
+            }
+        }
+        this.dirty.clear();
+    }
+
+    /**
+     * @return the merged lines as of the last update
+     */
+    public List<Line> getLines() {
+        List<Line> lines = new ArrayList<>();
+        for (Group group : this.groups.values()) {
+            lines.addAll(group.merged);
+        }
+        return lines;
+    }
+
+    /**
+     * Shows the edges of a polygon that are hidden, and hides the ones that are shown.
+     *
+     * @param polygon the polygon
+     */
+    private void toggle(Polygon polygon) {
+        for (Line edge : polygon.getLines()) {
+            Group group = this.groups.computeIfAbsent(new LineKey(edge), Group::new);
+            if (!group.edges.remove(edge)) {
+                group.edges.add(edge);
+            }
+            if (!group.dirty) {
+                group.dirty = true;
+                this.dirty.add(group);
+            }
+        }
+    }
+
+    /**
+     * The edges that lie on a single line, and the lines they were merged into.
+     */
+    private static final class Group {
+        private final LineKey key;
+        private final Set<Line> edges;
+        private List<Line> merged;
+        private boolean dirty;
+
+        /**
+         * Constructor.
+         *
+         * @param key the key of the line the edges lie on
+         */
+        private Group(LineKey key) {
+            this.key = key;
+            this.edges = new ValueSet<>(true);
+            this.merged = List.of();
+            this.dirty = false;
+        }
+    }
+}
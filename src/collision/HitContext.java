@@ -0,0 +1,41 @@
+package collision;
+
+/**
+ * The context of the hits of a single colliding object, passed along to every collidable it hits.
+ * It lets a collidable know who hit it without having to look the hitter up, and where to queue the hit events.
+ */
+public class HitContext {
+    private final Colliding hitter;
+    private HitEventQueue eventQueue;
+
+    /**
+     * Constructor.
+     *
+     * @param hitter the object that does the hitting
+     */
+    public HitContext(Colliding hitter) {
+        this.hitter = hitter;
+        this.eventQueue = null;
+    }
+
+    /**
+     * @return the object that does the hitting
+     */
+    public Colliding getHitter() {
+        return this.hitter;
+    }
+
+    /**
+     * @return the queue to add the hit events to, or null if they are dispatched right away
+     */
+    public HitEventQueue getEventQueue() {
+        return this.eventQueue;
+    }
+
+    /**
+     * @param eventQueue the queue to add the hit events to, or null to dispatch them right away
+     */
+    public void setEventQueue(HitEventQueue eventQueue) {
+        this.eventQueue = eventQueue;
+    }
+}
@@ -0,0 +1,87 @@
+package collision;
+
+import graphics.Ball;
+import graphics.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A queue of the hit events of a tick.
+ * While the queue is open, the hits of blocks are queued instead of being dispatched to the hit listeners in the
+ * middle of the collisions, and they are all dispatched in order when the queue is flushed.
+ * While the queue is closed, hits are dispatched right away.
+ * Whether the ball touched the block is kept with every queued hit, since the ball may have moved on by the time
+ * the hit is dispatched.
+ */
+public class HitEventQueue {
+    private final List<Block> blocks;
+    private final List<Ball> hitters;
+    private final List<Boolean> touching;
+    private boolean open;
+
+    /**
+     * Constructor.
+     */
+    public HitEventQueue() {
+        this.blocks = new ArrayList<>();
+        this.hitters = new ArrayList<>();
+        this.touching = new ArrayList<>();
+        this.open = false;
+    }
+
+    /**
+     * Opens the queue, so hits are queued until the next flush.
+     */
+    public void open() {
+        this.open = true;
+    }
+
+    /**
+     * @return true if hits are queued, false if they are dispatched right away
+     */
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Queues a hit, or dispatches it right away if the queue is closed.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     */
+    public void add(Block beingHit, Ball hitter) {
+        boolean touches = hitter.isIntersecting(beingHit);
+        if (!this.open) {
+            beingHit.dispatchHit(hitter, touches);
+            return;
+        }
+        this.blocks.add(beingHit);
+        this.hitters.add(hitter);
+        this.touching.add(touches);
+    }
+
+    /**
+     * @return the number of queued hits
+     */
+    public int size() {
+        return this.blocks.size();
+    }
+
+    /**
+     * Closes the queue and dispatches the queued hits, in the order they happened.
+     * Hits that happen while the hits are dispatched are dispatched right away.
+     */
+    public void flush() {
+        this.open = false;
+        try {
+            for (int i = 0; i < this.blocks.size(); i++) {
+                this.blocks.get(i).dispatchHit(this.hitters.get(i), this.touching.get(i));
+            }
+        } finally {
+            this.blocks.clear();
+            this.hitters.clear();
+            this.touching.clear();
+        }
+    }
+}
@@ -15,4 +15,17 @@ public interface HitListener {
      * @param hitter   the ball that hit the block
      */
     void hitEvent(Block beingHit, Ball hitter);
+
+    /**
+     * This method is called whenever a block is hit by a ball, with whether they touched when the hit happened.
+     * Hits may be dispatched after the ball already moved on, so listeners that care where the ball hit should
+     * use the given flag rather than the current position of the ball.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     * @param touching true if the ball intersected the block when the hit happened, false otherwise
+     */
+    default void hitEvent(Block beingHit, Ball hitter, boolean touching) {
+        hitEvent(beingHit, hitter);
+    }
 }
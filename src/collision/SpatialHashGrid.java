@@ -0,0 +1,272 @@
+package collision;
+
+import geometry.Rectangle;
+import physics.Physical;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform spatial hash grid of collidables.
+ * Every collidable is bucketed by the cells its bounds cover, so a query only has to look at the
+ * collidables that are near the queried area instead of at all of them.
+ * Collidables that can move by themselves ({@link Physical}) or that cover too many cells are kept
+ * aside and are returned by every query.
+ * The grid is not thread-safe, except for {@link #concurrentQuery}, which can run on many threads at once
+ * while the grid is not changed.
+ */
+public class SpatialHashGrid {
+    private static final int MAX_CELLS_PER_ENTRY = 4096;
+    private static final Comparator<Entry> INSERTION_ORDER = Comparator.comparingLong(e -> e.sequence);
+    private final double cellSize;
+    private final Map<Long, List<Entry>> cells;
+    private final Map<Collidable, Entry> entries;
+    private final List<Entry> unbucketed;
+    private final List<Entry> found;
+    private final ThreadLocal<List<Entry>> concurrentFound;
+    private long sequence;
+    private int query;
+
+    /**
+     * Constructor.
+     *
+     * @param cellSize the width and height of a single cell
+     */
+    public SpatialHashGrid(double cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new HashMap<>();
+        this.entries = new HashMap<>();
+        this.unbucketed = new ArrayList<>();
+        this.found = new ArrayList<>();
+        this.concurrentFound = ThreadLocal.withInitial(ArrayList::new);
+        this.sequence = 0;
+        this.query = 0;
+    }
+
+    /**
+     * Adds a collidable to the grid.
+     *
+     * @param c the collidable to add
+     * @return true if the collidable was added, false if it was already in the grid
+     */
+    public boolean add(Collidable c) {
+        if (this.entries.containsKey(c)) {
+            return false;
+        }
+        Entry entry = new Entry(c, this.sequence++);
+        this.entries.put(c, entry);
+        if (c instanceof Physical) {
+            this.unbucketed.add(entry);
+            return true;
+        }
+        Rectangle bounds = c.getBounds();
+        entry.minX = cell(bounds.left());
+        entry.minY = cell(bounds.top());
+        entry.maxX = cell(bounds.right());
+        entry.maxY = cell(bounds.bottom());
+        if ((long) (entry.maxX - entry.minX + 1) * (entry.maxY - entry.minY + 1) > MAX_CELLS_PER_ENTRY) {
+            this.unbucketed.add(entry);
+            return true;
+        }
+        entry.bucketed = true;
+        for (int x = entry.minX; x <= entry.maxX; x++) {
+            for (int y = entry.minY; y <= entry.maxY; y++) {
+                this.cells.computeIfAbsent(key(x, y), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a collidable from the grid.
+     *
+     * @param c the collidable to remove
+     * @return true if the collidable was removed, false if it was not in the grid
+     */
+    public boolean remove(Collidable c) {
+        Entry entry = this.entries.remove(c);
+        if (entry == null) {
+            return false;
+        }
+        if (!entry.bucketed) {
+            this.unbucketed.remove(entry);
+            return true;
+        }
+        for (int x = entry.minX; x <= entry.maxX; x++) {
+            for (int y = entry.minY; y <= entry.maxY; y++) {
+                Long key = key(x, y);
+                List<Entry> bucket = this.cells.get(key);
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    this.cells.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the collidables from the grid.
+     */
+    public void clear() {
+        this.cells.clear();
+        this.entries.clear();
+        this.unbucketed.clear();
+    }
+
+    /**
+     * @return the number of collidables in the grid
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Collects every collidable whose cells touch the given area.
+     * The collidables are added to the output in the order they were added to the grid, each one once.
+     *
+     * @param minX the left side of the area
+     * @param minY the top side of the area
+     * @param maxX the right side of the area
+     * @param maxY the bottom side of the area
+     * @param out  the list to add the found collidables to
+     */
+    public void query(double minX, double minY, double maxX, double maxY, List<Collidable> out) {
+        int mark = ++this.query;
+        this.found.clear();
+        for (Entry entry : this.unbucketed) {
+            entry.mark = mark;
+            this.found.add(entry);
+        }
+        int fromX = cell(minX);
+        int fromY = cell(minY);
+        int toX = cell(maxX);
+        int toY = cell(maxY);
+        if (((double) toX - fromX + 1) * ((double) toY - fromY + 1) > this.cells.size()) {
+            // the area covers more cells than are occupied, so walk the occupied cells instead
+            for (Map.Entry<Long, List<Entry>> cell : this.cells.entrySet()) {
+                long key = cell.getKey();
+                int x = (int) (key >> Integer.SIZE);
+                int y = (int) key;
+                if (x >= fromX && x <= toX && y >= fromY && y <= toY) {
+                    collect(cell.getValue(), mark);
+                }
+            }
+        } else {
+            // long counters, so a range that ends at the last cell does not overflow
+            for (long x = fromX; x <= toX; x++) {
+                for (long y = fromY; y <= toY; y++) {
+                    List<Entry> bucket = this.cells.get(key((int) x, (int) y));
+                    if (bucket != null) {
+                        collect(bucket, mark);
+                    }
+                }
+            }
+        }
+        this.found.sort(INSERTION_ORDER);
+        for (Entry entry : this.found) {
+            out.add(entry.collidable);
+        }
+        this.found.clear();
+    }
+
+    /**
+     * Collects every collidable whose cells touch the given area, like {@link #query}, without marking the found
+     * collidables, so queries can run on many threads at once as long as the grid is not changed meanwhile.
+     *
+     * @param minX the left side of the area
+     * @param minY the top side of the area
+     * @param maxX the right side of the area
+     * @param maxY the bottom side of the area
+     * @param out  the list to add the found collidables to
+     */
+    public void concurrentQuery(double minX, double minY, double maxX, double maxY, List<Collidable> out) {
+        List<Entry> found = this.concurrentFound.get();
+        found.clear();
+        found.addAll(this.unbucketed);
+        int fromX = cell(minX);
+        int fromY = cell(minY);
+        int toX = cell(maxX);
+        int toY = cell(maxY);
+        if (((double) toX - fromX + 1) * ((double) toY - fromY + 1) > this.cells.size()) {
+            for (Map.Entry<Long, List<Entry>> cell : this.cells.entrySet()) {
+                long key = cell.getKey();
+                int x = (int) (key >> Integer.SIZE);
+                int y = (int) key;
+                if (x >= fromX && x <= toX && y >= fromY && y <= toY) {
+                    found.addAll(cell.getValue());
+                }
+            }
+        } else {
+            for (long x = fromX; x <= toX; x++) {
+                for (long y = fromY; y <= toY; y++) {
+                    List<Entry> bucket = this.cells.get(key((int) x, (int) y));
+                    if (bucket != null) {
+                        found.addAll(bucket);
+                    }
+                }
+            }
+        }
+        // an entry that covers a few cells is found once for each of them, so the duplicates are sorted together
+        found.sort(INSERTION_ORDER);
+        Entry previous = null;
+        for (Entry entry : found) {
+            if (entry != previous) {
+                out.add(entry.collidable);
+            }
+            previous = entry;
+        }
+        found.clear();
+    }
+
+    /**
+     * Adds the entries of a bucket that were not found yet in the current query.
+     *
+     * @param bucket the bucket of a cell
+     * @param mark   the mark of the current query
+     */
+    private void collect(List<Entry> bucket, int mark) {
+        for (Entry entry : bucket) {
+            if (entry.mark != mark) {
+                entry.mark = mark;
+                this.found.add(entry);
+            }
+        }
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / this.cellSize);
+    }
+
+    private static Long key(int x, int y) {
+        return ((long) x << Integer.SIZE) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A collidable in the grid, with the cells it was bucketed into.
+     */
+    private static final class Entry {
+        private final Collidable collidable;
+        private final long sequence;
+        private boolean bucketed;
+        private int minX;
+        private int minY;
+        private int maxX;
+        private int maxY;
+        private int mark;
+
+        /**
+         * Constructor.
+         *
+         * @param collidable the collidable of the entry
+         * @param sequence   the insertion number of the entry
+         */
+        private Entry(Collidable collidable, long sequence) {
+            this.collidable = collidable;
+            this.sequence = sequence;
+        }
+    }
+}
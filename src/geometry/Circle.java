@@ -84,6 +84,22 @@ public class Circle extends Point implements Colliding {
         return new Velocity(this.velocity);
     }
 
+    /**
+     * @return the x coordinate of the velocity of the object
+     */
+    @Override
+    public double getVelocityX() {
+        return this.velocity.getX();
+    }
+
+    /**
+     * @return the y coordinate of the velocity of the object
+     */
+    @Override
+    public double getVelocityY() {
+        return this.velocity.getY();
+    }
+
     /**
      * @param dx the x coordinate of the new point
      * @param dy the y coordinate of the new point
@@ -108,7 +124,10 @@ public class Circle extends Point implements Colliding {
     @Override
     public void moveOneStep() {
         this.getCollider().apply();
-        transform(this.velocity.withFPS(Constants.FPS));
+        // in continuous mode, the environment already moved the circle through its collisions
+        if (getCollider().getMode() == CircleCollider.Mode.DISCRETE) {
+            this.velocity.applyStep(this, Constants.FPS);
+        }
         this.velocity.moveOneStep();
         getCollider().updateSpeed();
     }
@@ -120,6 +139,20 @@ public class Circle extends Point implements Colliding {
         return new Point(this.lastCenter);
     }
 
+    /**
+     * @return The x coordinate of the last center of the circle
+     */
+    public double getLastX() {
+        return this.lastCenter.getX();
+    }
+
+    /**
+     * @return The y coordinate of the last center of the circle
+     */
+    public double getLastY() {
+        return this.lastCenter.getY();
+    }
+
     /**
      * @return The area of the circle
      */
@@ -144,11 +177,23 @@ public class Circle extends Point implements Colliding {
     }
 
     /**
+     * Checks for intersection with an exact test when there is one for the shape,
+     * and with the shape's polygon approximation otherwise.
+     *
      * @param other the shape to check for intersection
      * @return true if the circle intersects with the other shape, false otherwise
      */
     @Override
     public boolean isIntersecting(Shape other) {
+        if (other instanceof Line) {
+            return isIntersecting((Line) other);
+        }
+        if (other instanceof Polygon) {
+            return isIntersecting((Polygon) other);
+        }
+        if (other instanceof Circle) {
+            return isIntersecting((Circle) other);
+        }
         return isIntersecting(other.getPolygon(Constants.POLYGON_ACCURACY_FACTOR));
     }
 
@@ -157,7 +202,7 @@ public class Circle extends Point implements Colliding {
      * @return true if the circle intersects with the other shape, false otherwise
      */
     public boolean isIntersecting(Polygon other) {
-        return getIntersecting(other) != null;
+        return other.isIntersecting(this);
     }
 
     /**
@@ -165,7 +210,10 @@ public class Circle extends Point implements Colliding {
      * @return true if the circle intersects with the other circle, false otherwise
      */
     public boolean isIntersecting(Circle other) {
-        return this.getCenter().distance(other.getCenter()) < this.getRadius() + other.getRadius();
+        double dx = this.getX() - other.getX();
+        double dy = this.getY() - other.getY();
+        double radii = this.getRadius() + other.getRadius();
+        return dx * dx + dy * dy < radii * radii;
     }
 
     /**
@@ -174,13 +222,8 @@ public class Circle extends Point implements Colliding {
      */
     @Override
     public Line getIntersecting(Polygon line) {
-        Line[] lines = line.getLines();
-        for (Line l : lines) {
-            if (this.isIntersecting(l)) {
-                return l;
-            }
-        }
-        return null;
+        int index = line.intersectingEdge(this);
+        return index < 0 ? null : line.getLines()[index];
     }
 
     /**
@@ -201,19 +244,202 @@ public class Circle extends Point implements Colliding {
      * NO_INTERSECTION if the circle doesn't intersect the line.
      */
     public IntersectionType intersectionType(Line line) {
-        if (new Line(this, this.lastCenter).isIntersecting(line)) {
+        return intersectionType(getX(), getY(), getLastX(), getLastY(), this.radius, line);
+    }
+
+    /**
+     * Calculates if a circle, given by its coordinates, intersects with a line, using the point of the line that
+     * is closest to the center.
+     *
+     * @param x      the x coordinate of the center of the circle
+     * @param y      the y coordinate of the center of the circle
+     * @param lastX  the x coordinate of the last center of the circle
+     * @param lastY  the y coordinate of the last center of the circle
+     * @param radius the radius of the circle
+     * @param line   the line to intersect with
+     * @return MOVEMENT_INTERSECTION if the center crossed the line since the last center,
+     * ON_TOP if the circle intersects the line segment itself,
+     * ON_VERTEX if the circle intersects one of the vertexes, and
+     * NO_INTERSECTION if the circle doesn't intersect the line.
+     */
+    public static IntersectionType intersectionType(double x, double y, double lastX, double lastY, double radius,
+                                                    Line line) {
+        if (LineUtils.areIntersecting(x, y, lastX, lastY, line)) {
             return IntersectionType.MOVEMENT_INTERSECTION;
         }
-        double startAngle = LineUtils.angleBetween(line, new Line(line.getStart(), this));
-        double endAngle = LineUtils.angleBetween(line, new Line(this, line.getEnd()));
-        if (startAngle <= Math.PI / 2 && endAngle <= Math.PI / 2) {
-            return line.distance(this.getCenter()) <= this.getRadius() ? IntersectionType.ON_TOP
-                    : IntersectionType.NO_INTERSECTION;
+        double x1 = line.startX();
+        double y1 = line.startY();
+        double x2 = line.endX();
+        double y2 = line.endY();
+        double r2 = radius * radius;
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double length2 = dx * dx + dy * dy;
+        if (length2 > 0 && dx * (x - x1) + dy * (y - y1) >= 0 && dx * (x2 - x) + dy * (y2 - y) >= 0) {
+            double cross = dx * (y - y1) - dy * (x - x1);
+            return cross * cross <= r2 * length2 ? IntersectionType.ON_TOP : IntersectionType.NO_INTERSECTION;
+        }
+        double d1 = (x1 - x) * (x1 - x) + (y1 - y) * (y1 - y);
+        double d2 = (x2 - x) * (x2 - x) + (y2 - y) * (y2 - y);
+        return Math.min(d1, d2) <= r2 ? IntersectionType.ON_VERTEX : IntersectionType.NO_INTERSECTION;
+    }
+
+    /**
+     * Calculates when the circle first touches a shape while it moves by the given delta.
+     * Only contacts the circle moves towards count, so a circle that touches a shape and moves away from it
+     * does not touch it again.
+     *
+     * @param other the shape
+     * @param dx    the x coordinate of the movement
+     * @param dy    the y coordinate of the movement
+     * @return the time of the first contact, as a fraction of the movement between 0 and 1,
+     * or {@link Double#POSITIVE_INFINITY} if the circle does not touch the shape
+     */
+    public double timeOfImpact(Shape other, double dx, double dy) {
+        if (other instanceof Line) {
+            Line line = (Line) other;
+            return timeOfImpact(line.startX(), line.startY(), line.endX(), line.endY(), dx, dy);
+        }
+        if (other instanceof Polygon) {
+            Polygon polygon = (Polygon) other;
+            double first = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < polygon.getNumVertices(); i++) {
+                int j = (i + 1) % polygon.getNumVertices();
+                first = Math.min(first, timeOfImpact(polygon.vertexX(i), polygon.vertexY(i),
+                        polygon.vertexX(j), polygon.vertexY(j), dx, dy));
+            }
+            return first;
+        }
+        if (other instanceof Circle) {
+            Circle circle = (Circle) other;
+            return timeOfImpact(circle.getX(), circle.getY(), this.radius + circle.getRadius(), dx, dy);
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the point of a line or a polygon that is closest to the center of the circle, and checks if it is a
+     * vertex rather than a point inside an edge.
+     *
+     * @param other  the line or polygon
+     * @param vertex the point to move to the closest vertex, if the closest point is a vertex
+     * @return true if the closest point of the shape is a vertex, false otherwise or for other shapes
+     */
+    public boolean closestVertex(Shape other, Point vertex) {
+        int edges;
+        if (other instanceof Line) {
+            edges = 1;
+        } else if (other instanceof Polygon) {
+            edges = ((Polygon) other).getNumVertices();
         } else {
-            return Math.min(line.getStart().distance(this),
-                    line.getEnd().distance(this)) <= this.getRadius() ? IntersectionType.ON_VERTEX
-                    : IntersectionType.NO_INTERSECTION;
+            return false;
+        }
+        double closest = Double.POSITIVE_INFINITY;
+        boolean atVertex = false;
+        for (int i = 0; i < edges; i++) {
+            double x1;
+            double y1;
+            double x2;
+            double y2;
+            if (other instanceof Line) {
+                Line line = (Line) other;
+                x1 = line.startX();
+                y1 = line.startY();
+                x2 = line.endX();
+                y2 = line.endY();
+            } else {
+                Polygon polygon = (Polygon) other;
+                x1 = polygon.edgeStartX(i);
+                y1 = polygon.edgeStartY(i);
+                x2 = polygon.edgeEndX(i);
+                y2 = polygon.edgeEndY(i);
+            }
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double length2 = dx * dx + dy * dy;
+            double t = length2 == 0 ? 0 : ((getX() - x1) * dx + (getY() - y1) * dy) / length2;
+            double px = t <= 0 ? x1 : t >= 1 ? x2 : x1 + t * dx;
+            double py = t <= 0 ? y1 : t >= 1 ? y2 : y1 + t * dy;
+            double distance2 = (getX() - px) * (getX() - px) + (getY() - py) * (getY() - py);
+            if (distance2 < closest) {
+                closest = distance2;
+                atVertex = t <= 0 || t >= 1;
+                vertex.move(px, py);
+            }
+        }
+        return atVertex;
+    }
+
+    /**
+     * Calculates when the circle first touches the line segment between two points while it moves by the given
+     * delta, either on the segment itself or on one of its ends.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     * @param dx the x coordinate of the movement
+     * @param dy the y coordinate of the movement
+     * @return the time of the first contact, as a fraction of the movement between 0 and 1,
+     * or {@link Double#POSITIVE_INFINITY} if the circle does not touch the line
+     */
+    public double timeOfImpact(double x1, double y1, double x2, double y2, double dx, double dy) {
+        double first = Math.min(timeOfImpact(x1, y1, this.radius, dx, dy), timeOfImpact(x2, y2, this.radius, dx, dy));
+        double ex = x2 - x1;
+        double ey = y2 - y1;
+        double length2 = ex * ex + ey * ey;
+        if (length2 == 0) {
+            return first;
+        }
+        double length = Math.sqrt(length2);
+        // the normal of the line, towards the side of the center
+        double nx = -ey / length;
+        double ny = ex / length;
+        double distance = nx * (getX() - x1) + ny * (getY() - y1);
+        if (distance < 0) {
+            nx = -nx;
+            ny = -ny;
+            distance = -distance;
+        }
+        double approach = -(nx * dx + ny * dy);
+        if (approach <= 0) {
+            return first;
+        }
+        double t = Math.max(0, (distance - this.radius) / approach);
+        if (t > 1 || t >= first) {
+            return first;
+        }
+        double along = ex * (getX() + dx * t - x1) + ey * (getY() + dy * t - y1);
+        return along >= 0 && along <= length2 ? t : first;
+    }
+
+    /**
+     * @param x     the x coordinate of the point
+     * @param y     the y coordinate of the point
+     * @param reach the distance from the point at which the center touches it
+     * @param dx    the x coordinate of the movement
+     * @param dy    the y coordinate of the movement
+     * @return the time the center first gets within reach of the point while moving towards it, as a fraction of
+     * the movement between 0 and 1, or {@link Double#POSITIVE_INFINITY} if it does not
+     */
+    private double timeOfImpact(double x, double y, double reach, double dx, double dy) {
+        double fx = getX() - x;
+        double fy = getY() - y;
+        double halfB = fx * dx + fy * dy;
+        if (halfB >= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double c = fx * fx + fy * fy - reach * reach;
+        if (c <= 0) {
+            return 0;
+        }
+        double a = dx * dx + dy * dy;
+        double discriminant = halfB * halfB - a * c;
+        if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
         }
+        double t = (-halfB - Math.sqrt(discriminant)) / a;
+        return t <= 1 ? t : Double.POSITIVE_INFINITY;
     }
 
     /**
@@ -8,11 +8,14 @@ import util.Constants;
 import util.LineUtils;
 import util.MathUtils;
 import util.Pair;
+import util.Tolerant;
 
 /**
  * A class that represents a line in 2D space.
  */
-public class Line extends Pair<Point, Point> implements Drawable, Collidable {
+public class Line extends Pair<Point, Point> implements Drawable, Collidable, Tolerant {
+    private double directionX;
+    private double directionY;
     /**
      * Copy constructor.
      *
@@ -42,6 +45,73 @@ public class Line extends Pair<Point, Point> implements Drawable, Collidable {
      */
     public Line(double x1, double y1, double x2, double y2) {
         super(new Point(x1, y1), new Point(x2, y2));
+        updateDirection();
+    }
+
+    /**
+     * Caches the unit direction of the line, which a line without length points along the x axis.
+     */
+    private void updateDirection() {
+        double dx = endX() - startX();
+        double dy = endY() - startY();
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) {
+            this.directionX = 1;
+            this.directionY = 0;
+        } else {
+            this.directionX = dx / length;
+            this.directionY = dy / length;
+        }
+    }
+
+    /**
+     * Sets the start point of the line.
+     *
+     * @param first the new start point
+     */
+    @Override
+    public void setFirst(Point first) {
+        super.setFirst(first);
+        updateDirection();
+    }
+
+    /**
+     * Sets the end point of the line.
+     *
+     * @param second the new end point
+     */
+    @Override
+    public void setSecond(Point second) {
+        super.setSecond(second);
+        updateDirection();
+    }
+
+    /**
+     * @return the x coordinate of the unit vector from the start of the line to its end
+     */
+    public double directionX() {
+        return this.directionX;
+    }
+
+    /**
+     * @return the y coordinate of the unit vector from the start of the line to its end
+     */
+    public double directionY() {
+        return this.directionY;
+    }
+
+    /**
+     * @return the x coordinate of the unit normal of the line, the direction turned a quarter clockwise
+     */
+    public double normalX() {
+        return -this.directionY;
+    }
+
+    /**
+     * @return the y coordinate of the unit normal of the line, the direction turned a quarter clockwise
+     */
+    public double normalY() {
+        return this.directionX;
     }
 
     /**
@@ -59,6 +129,34 @@ public class Line extends Pair<Point, Point> implements Drawable, Collidable {
                 (getStart().getY() + getEnd().getY()) / 2);
     }
 
+    /**
+     * @return The x coordinate of the start point of the line
+     */
+    public double startX() {
+        return getFirst().getX();
+    }
+
+    /**
+     * @return The y coordinate of the start point of the line
+     */
+    public double startY() {
+        return getFirst().getY();
+    }
+
+    /**
+     * @return The x coordinate of the end point of the line
+     */
+    public double endX() {
+        return getSecond().getX();
+    }
+
+    /**
+     * @return The y coordinate of the end point of the line
+     */
+    public double endY() {
+        return getSecond().getY();
+    }
+
     /**
      * @return The start point of the line
      */
@@ -104,7 +202,7 @@ public class Line extends Pair<Point, Point> implements Drawable, Collidable {
      * @return True if the lines intersect, false otherwise
      */
     public boolean isIntersecting(Line other) {
-        return LineUtils.wcc(this, other) && LineUtils.wcc(other, this);
+        return LineUtils.areIntersecting(startX(), startY(), endX(), endY(), other);
     }
 
     /**
@@ -252,6 +350,31 @@ public class Line extends Pair<Point, Point> implements Drawable, Collidable {
                 || getStart().equals(other.getEnd()) && getEnd().equals(other.getStart()));
     }
 
+    /**
+     * @return The x coordinate of the middle point of the line
+     */
+    @Override
+    public double anchorX() {
+        return (startX() + endX()) / 2;
+    }
+
+    /**
+     * @return The y coordinate of the middle point of the line
+     */
+    @Override
+    public double anchorY() {
+        return (startY() + endY()) / 2;
+    }
+
+    /**
+     * @param other The object to compare to
+     * @return True if the other object is a line that is equal to this line (in either direction), false otherwise
+     */
+    @Override
+    public boolean tolerantEquals(Object other) {
+        return other instanceof Line && equals((Line) other);
+    }
+
     /**
      * @param point The point to check
      * @return The distance from the line to the point
@@ -302,76 +425,53 @@ public class Line extends Pair<Point, Point> implements Drawable, Collidable {
      */
     @Override
     public Velocity hit(Point collisionPoint, Velocity collisionVelocity) {
-        double normalAngle = this.getAngle() + Math.PI / 2;
-        Point normal = Point.fromAngleAndSpeed(normalAngle, 1);
-        Point velocityProj = normal.copy().multiply(normal.dot(collisionVelocity));
-        Point center = collisionPoint.subtract(this.getStart());
-        Point centerProj = normal.copy().multiply(normal.dot(center)).normalize();
-        Point changed = centerProj.copy().multiply(Constants.ELASTICITY_FACTOR
-                * velocityProj.normal()).subtract(velocityProj).add(collisionVelocity);
-        return new Velocity(changed);
+        return reflectInto(collisionPoint.getX(), collisionPoint.getY(), collisionVelocity.getX(),
+                collisionVelocity.getY(), new Velocity(0, 0));
     }
 
     /**
-     * Check if this line can be merged with another line.
+     * A circle that hits an end of the line bounces off the end itself.
      *
-     * @param other The line to check
-     * @return True if the lines are mergeable, false otherwise
-     */
-    public boolean isMergable(Line other) {
-        Point[] thisEnds = {this.getStart(), this.getEnd()};
-        Point[] otherEnds = {other.getStart(), other.getEnd()};
-
-        for (Point p1 : thisEnds) {
-            for (Point p2 : otherEnds) {
-                if (p1.equals(p2)) {
-                    Point dir1 = this.getOtherPoint(p1).subtract(p1);
-                    Point dir2 = other.getOtherPoint(p2).subtract(p2);
-                    double cross = dir1.getX() * dir2.getY() - dir1.getY() * dir2.getX();
-                    return Math.abs(cross) < MathUtils.COMPARISON_THRESHOLD;
-                }
-            }
-        }
-        return false;
+     * @return true
+     */
+    @Override
+    public boolean bouncesOffVertices() {
+        return true;
     }
 
     /**
-     * Merge this line with another line if they are mergeable.
+     * Bounces a velocity off the line, without creating points: the part of the velocity along the normal of
+     * the line is flipped to point to the side of the line the collision point is on.
      *
-     * @param other The line to merge with
-     * @return A new line that is the result of the merge
-     * @throws IllegalStateException if the lines are not mergeable
-     */
-    public Line merge(Line other) {
-        Point[] thisEnds = {this.getStart(), this.getEnd()};
-        Point[] otherEnds = {other.getStart(), other.getEnd()};
-
-        for (Point p1 : thisEnds) {
-            for (Point p2 : otherEnds) {
-                if (p1.equals(p2)) {
-                    Point thisOther = this.getOtherPoint(p1);
-                    Point otherOther = other.getOtherPoint(p2);
-                    return new Line(thisOther, otherOther);
-                }
-            }
-        }
-        throw new IllegalStateException("Lines are not mergeable.");
+     * @param x      the x coordinate of the point of collision
+     * @param y      the y coordinate of the point of collision
+     * @param vx     the x coordinate of the velocity at the time of collision
+     * @param vy     the y coordinate of the velocity at the time of collision
+     * @param target the velocity to write the new velocity to
+     * @return the target velocity
+     */
+    public Velocity reflectInto(double x, double y, double vx, double vy, Velocity target) {
+        double side = normalX() * (x - startX()) + normalY() * (y - startY());
+        return reflectInto(normalX(), normalY(), side, vx, vy, target);
     }
 
     /**
-     * Get the other point of the line that is not the given point.
+     * Bounces a velocity off a surface: the part of the velocity along the normal of the surface is replaced by
+     * one of the same size, times the elasticity factor, that points to the given side of the surface.
      *
-     * @param p The point to check
-     * @return The other point of the line
-     * @throws IllegalArgumentException if the point is not part of the line
+     * @param nx     the x coordinate of the unit normal of the surface
+     * @param ny     the y coordinate of the unit normal of the surface
+     * @param side   positive if the object is on the side the normal points to, negative if it is on the other
+     *               side, and 0 if it is on the surface
+     * @param vx     the x coordinate of the velocity at the time of collision
+     * @param vy     the y coordinate of the velocity at the time of collision
+     * @param target the velocity to write the new velocity to
+     * @return the target velocity
      */
-    Point getOtherPoint(Point p) {
-        if (p.equals(this.getStart())) {
-            return this.getEnd();
-        }
-        if (p.equals(this.getEnd())) {
-            return this.getStart();
-        }
-        throw new IllegalArgumentException("Point is not part of the line.");
+    public static Velocity reflectInto(double nx, double ny, double side, double vx, double vy, Velocity target) {
+        double along = nx * vx + ny * vy;
+        double change = MathUtils.sign(side) * Constants.ELASTICITY_FACTOR * Math.abs(along) - along;
+        target.move(vx + nx * change, vy + ny * change);
+        return target;
     }
 }
@@ -0,0 +1,84 @@
+package geometry;
+
+import util.MathUtils;
+import util.Tolerant;
+
+/**
+ * The infinite line a segment lies on, independent of the segment's length and direction.
+ * Two keys are equal (up to {@link MathUtils#COMPARISON_THRESHOLD}) exactly when their segments are collinear,
+ * so keys can be used in a tolerant map to group collinear segments.
+ * The anchor of a key is the point of the line that is closest to the origin.
+ */
+public class LineKey implements Tolerant {
+    private final double dirX;
+    private final double dirY;
+    private final double footX;
+    private final double footY;
+
+    /**
+     * Constructor.
+     *
+     * @param line a segment on the line
+     */
+    public LineKey(Line line) {
+        double dx = line.endX() - line.startX();
+        double dy = line.endY() - line.startY();
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) {
+            dx = 1;
+            dy = 0;
+        } else {
+            dx /= length;
+            dy /= length;
+        }
+        // both directions of a segment give the same key
+        if (dx < 0 || dx == 0 && dy < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        this.dirX = dx;
+        this.dirY = dy;
+        double projection = line.startX() * dx + line.startY() * dy;
+        this.footX = line.startX() - dx * projection;
+        this.footY = line.startY() - dy * projection;
+    }
+
+    /**
+     * @param x the x coordinate of a point
+     * @param y the y coordinate of a point
+     * @return the position of the projection of the point along the line
+     */
+    public double project(double x, double y) {
+        return x * this.dirX + y * this.dirY;
+    }
+
+    /**
+     * @return the x coordinate of the point of the line that is closest to the origin
+     */
+    @Override
+    public double anchorX() {
+        return this.footX;
+    }
+
+    /**
+     * @return the y coordinate of the point of the line that is closest to the origin
+     */
+    @Override
+    public double anchorY() {
+        return this.footY;
+    }
+
+    /**
+     * @param other the object to compare to
+     * @return true if the other object is the key of the same line, false otherwise
+     */
+    @Override
+    public boolean tolerantEquals(Object other) {
+        if (!(other instanceof LineKey)) {
+            return false;
+        }
+        LineKey key = (LineKey) other;
+        return MathUtils.doubleEquals(this.footX, key.footX) && MathUtils.doubleEquals(this.footY, key.footY)
+                && Math.abs(this.dirX * key.dirY - this.dirY * key.dirX) < MathUtils.COMPARISON_THRESHOLD;
+    }
+}
@@ -2,12 +2,15 @@ package geometry;
 
 import graphics.Movable;
 import util.MathUtils;
-import util.Pair;
+import util.Tolerant;
 
 /**
  * A class that represents a point in 2D space.
  */
-public class Point extends Pair<Double, Double> implements Movable {
+public class Point implements Movable, Tolerant {
+    private double x;
+    private double y;
+
     /**
      * Create a point from an angle and speed.
      *
@@ -35,7 +38,8 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @param y The y coordinate
      */
     public Point(double x, double y) {
-        super(x, y);
+        this.x = x;
+        this.y = y;
     }
 
     /**
@@ -45,7 +49,19 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @return The distance between the two points
      */
     public double distance(Point other) {
-        return this.copy().subtract(other).normal();
+        return Math.sqrt(distanceSq(other));
+    }
+
+    /**
+     * Calculate the squared distance between this point and another point, without creating a point.
+     *
+     * @param other The other point
+     * @return The squared distance between the two points
+     */
+    public double distanceSq(Point other) {
+        double dx = this.getX() - other.getX();
+        double dy = this.getY() - other.getY();
+        return dx * dx + dy * dy;
     }
 
     /**
@@ -60,13 +76,38 @@ public class Point extends Pair<Double, Double> implements Movable {
                 && MathUtils.doubleEquals(this.getY(), other.getY());
     }
 
+    /**
+     * @return the x coordinate of the point
+     */
+    @Override
+    public double anchorX() {
+        return getX();
+    }
+
+    /**
+     * @return the y coordinate of the point
+     */
+    @Override
+    public double anchorY() {
+        return getY();
+    }
+
+    /**
+     * @param other the object to compare to
+     * @return true if the other object is a point that is equal to this point, false otherwise
+     */
+    @Override
+    public boolean tolerantEquals(Object other) {
+        return other instanceof Point && equals((Point) other);
+    }
+
     /**
      * Get the x coordinate of the point.
      *
      * @return The x coordinate
      */
     public double getX() {
-        return getFirst();
+        return this.x;
     }
 
     /**
@@ -75,7 +116,7 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @return The y coordinate
      */
     public double getY() {
-        return getSecond();
+        return this.y;
     }
 
     /**
@@ -84,7 +125,7 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @param x The x coordinate
      */
     public void setX(double x) {
-        setFirst(x);
+        this.x = x;
     }
 
     /**
@@ -93,7 +134,43 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @param y The y coordinate
      */
     public void setY(double y) {
-        setSecond(y);
+        this.y = y;
+    }
+
+    /**
+     * @return the x coordinate of the point
+     * @deprecated use {@link #getX()}
+     */
+    @Deprecated
+    public Double getFirst() {
+        return getX();
+    }
+
+    /**
+     * @return the y coordinate of the point
+     * @deprecated use {@link #getY()}
+     */
+    @Deprecated
+    public Double getSecond() {
+        return getY();
+    }
+
+    /**
+     * @param first the x coordinate of the point
+     * @deprecated use {@link #setX(double)}
+     */
+    @Deprecated
+    public void setFirst(Double first) {
+        setX(first);
+    }
+
+    /**
+     * @param second the y coordinate of the point
+     * @deprecated use {@link #setY(double)}
+     */
+    @Deprecated
+    public void setSecond(Double second) {
+        setY(second);
     }
 
     /**
@@ -161,6 +238,18 @@ public class Point extends Pair<Double, Double> implements Movable {
         return this;
     }
 
+    /**
+     * Multiply the point by a scalar into another point, leaving this point as it is.
+     *
+     * @param scalar the scalar to multiply by
+     * @param target the point to write the result to
+     * @return the target point
+     */
+    public Point scaleInto(double scalar, Point target) {
+        target.move(getX() * scalar, getY() * scalar);
+        return target;
+    }
+
     /**
      * Calculate the dot product of this point and another point.
      *
@@ -182,6 +271,18 @@ public class Point extends Pair<Double, Double> implements Movable {
         return this;
     }
 
+    /**
+     * Add a delta to this point.
+     *
+     * @param dx the delta x
+     * @param dy the delta y
+     * @return this point after addition
+     */
+    public Point addInPlace(double dx, double dy) {
+        transform(dx, dy);
+        return this;
+    }
+
     /**
      * Subtract another point from this point.
      *
@@ -189,7 +290,7 @@ public class Point extends Pair<Double, Double> implements Movable {
      * @return this point after subtraction
      */
     public Point subtract(Point other) {
-        add(other.copy().multiply(-1));
+        transform(-other.getX(), -other.getY());
         return this;
     }
 
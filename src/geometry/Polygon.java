@@ -4,9 +4,9 @@ import collision.Collidable;
 import graphics.Movable;
 import physics.Velocity;
 import util.Constants;
+import util.LineUtils;
 import util.ValueMap;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
@@ -14,12 +14,15 @@ import java.util.Map;
 
 /**
  * This class represents a polygon in 2D space.
+ * The edges and the bounds of the polygon are created once and kept until the polygon moves.
  */
 public class Polygon implements Shape, Collidable, Movable {
     private final Point[] vertices;
     private final int numVertices;
     private double area;
     private Rectangle bounds;
+    // the edges may be created by many threads at once while collisions are found in parallel
+    private volatile Line[] lines;
 
     /**
      * Constructor.
@@ -33,6 +36,7 @@ public class Polygon implements Shape, Collidable, Movable {
         }
         this.numVertices = vertices.length;
         this.bounds = null;
+        this.lines = null;
         this.area = -1;
     }
 
@@ -44,6 +48,54 @@ public class Polygon implements Shape, Collidable, Movable {
         return new Point(this.vertices[index]);
     }
 
+    /**
+     * @param index the index of the vertex
+     * @return the x coordinate of the vertex at the given index
+     */
+    double vertexX(int index) {
+        return this.vertices[index].getX();
+    }
+
+    /**
+     * @param index the index of the vertex
+     * @return the y coordinate of the vertex at the given index
+     */
+    double vertexY(int index) {
+        return this.vertices[index].getY();
+    }
+
+    /**
+     * @param index the index of the edge, which starts at the vertex of the same index
+     * @return the x coordinate of the start of the edge
+     */
+    public double edgeStartX(int index) {
+        return vertexX(index);
+    }
+
+    /**
+     * @param index the index of the edge, which starts at the vertex of the same index
+     * @return the y coordinate of the start of the edge
+     */
+    public double edgeStartY(int index) {
+        return vertexY(index);
+    }
+
+    /**
+     * @param index the index of the edge, which starts at the vertex of the same index
+     * @return the x coordinate of the end of the edge
+     */
+    public double edgeEndX(int index) {
+        return vertexX((index + 1) % this.numVertices);
+    }
+
+    /**
+     * @param index the index of the edge, which starts at the vertex of the same index
+     * @return the y coordinate of the end of the edge
+     */
+    public double edgeEndY(int index) {
+        return vertexY((index + 1) % this.numVertices);
+    }
+
     /**
      * @return the number of the vertices in the polygon
      */
@@ -79,8 +131,7 @@ public class Polygon implements Shape, Collidable, Movable {
      */
     @Override
     public boolean isIntersecting(Shape other) {
-        Line[] lines = this.getLines();
-        for (Line line : lines) {
+        for (Line line : lines()) {
             if (other.isIntersecting(line)) {
                 return true;
             }
@@ -94,9 +145,8 @@ public class Polygon implements Shape, Collidable, Movable {
      */
     @Override
     public Line getIntersecting(Polygon other) {
-        Line[] lines = this.getLines();
-        Line[] otherLines = other.getLines();
-        for (Line line : lines) {
+        Line[] otherLines = other.lines();
+        for (Line line : lines()) {
             for (Line otherLine : otherLines) {
                 if (line.isIntersecting(otherLine)) {
                     return otherLine;
@@ -107,14 +157,78 @@ public class Polygon implements Shape, Collidable, Movable {
     }
 
     /**
-     * @return the lines of the polygon
+     * @param circle the circle to check for intersection
+     * @return true if the circle intersects with one of the edges of the polygon, false otherwise
      */
-    public Line[] getLines() {
-        Line[] lines = new Line[this.numVertices];
+    public boolean isIntersecting(Circle circle) {
+        return isIntersecting(circle.getX(), circle.getY(), circle.getLastX(), circle.getLastY(), circle.getRadius());
+    }
+
+    /**
+     * Checks for intersection with a circle that is given by its coordinates.
+     *
+     * @param x      the x coordinate of the center of the circle
+     * @param y      the y coordinate of the center of the circle
+     * @param lastX  the x coordinate of the last center of the circle
+     * @param lastY  the y coordinate of the last center of the circle
+     * @param radius the radius of the circle
+     * @return true if the circle intersects with one of the edges of the polygon, false otherwise
+     */
+    public boolean isIntersecting(double x, double y, double lastX, double lastY, double radius) {
+        return intersectingEdge(x, y, lastX, lastY, radius) >= 0;
+    }
+
+    /**
+     * Finds the first edge of the polygon that the circle intersects, using the cached edges.
+     *
+     * @param circle the circle to check for intersection
+     * @return the index of the edge (as in {@link #getLines()}), or -1 if no edge intersects the circle
+     */
+    int intersectingEdge(Circle circle) {
+        return intersectingEdge(circle.getX(), circle.getY(), circle.getLastX(), circle.getLastY(),
+                circle.getRadius());
+    }
+
+    private int intersectingEdge(double x, double y, double lastX, double lastY, double radius) {
+        Line[] edges = lines();
         for (int i = 0; i < this.numVertices; i++) {
-            lines[i] = new Line(this.vertices[i], this.vertices[(i + 1) % this.numVertices]);
+            if (Circle.intersectionType(x, y, lastX, lastY, radius, edges[i])
+                    != Circle.IntersectionType.NO_INTERSECTION) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The lines are the same objects until the polygon moves, so they must not be changed.
+     *
+     * @return the lines of the polygon. the array is a copy.
+     */
+    public Line[] getLines() {
+        return lines().clone();
+    }
+
+    /**
+     * @return the cached lines of the polygon, which are created if the polygon moved since they were created
+     */
+    private Line[] lines() {
+        if (this.lines == null) {
+            Line[] created = new Line[this.numVertices];
+            for (int i = 0; i < this.numVertices; i++) {
+                created[i] = new Line(this.vertices[i], this.vertices[(i + 1) % this.numVertices]);
+            }
+            this.lines = created;
         }
-        return lines;
+        return this.lines;
+    }
+
+    /**
+     * Drops the cached edges and bounds, after the polygon moved.
+     */
+    private void invalidate() {
+        this.lines = null;
+        this.bounds = null;
     }
 
     /**
@@ -123,9 +237,8 @@ public class Polygon implements Shape, Collidable, Movable {
      */
     @Override
     public boolean isIntersecting(Line line) {
-        Line[] lines = this.getLines();
-        for (Line l : lines) {
-            if (l.isIntersecting(line)) {
+        for (int i = 0; i < this.numVertices; i++) {
+            if (LineUtils.areIntersecting(edgeStartX(i), edgeStartY(i), edgeEndX(i), edgeEndY(i), line)) {
                 return true;
             }
         }
@@ -161,6 +274,8 @@ public class Polygon implements Shape, Collidable, Movable {
     }
 
     /**
+     * The bounds are the same object until the polygon moves, so they must not be changed.
+     *
      * @return the bounding rectangle of the polygon
      */
     @Override
@@ -229,12 +344,12 @@ public class Polygon implements Shape, Collidable, Movable {
      */
     @Override
     public Velocity hit(Point collisionPoint, Velocity collisionVelocity) {
-        if (this.getLines().length == 0) {
+        if (this.numVertices == 0) {
             return collisionVelocity;
         }
         Circle circle = new Circle(collisionPoint, Constants.BALL_RADIUS);
-        List<Line> lines = new ArrayList<>(Arrays.asList(getLines()));
-        Map<Line, Circle.IntersectionType> map = new ValueMap<>();
+        List<Line> lines = Arrays.asList(lines());
+        Map<Line, Circle.IntersectionType> map = new ValueMap<>(true);
         for (Line line : lines) {
             map.put(line, circle.intersectionType(line));
         }
@@ -253,6 +368,16 @@ public class Polygon implements Shape, Collidable, Movable {
         }
     }
 
+    /**
+     * A circle that hits a vertex of the polygon bounces off the vertex itself.
+     *
+     * @return true
+     */
+    @Override
+    public boolean bouncesOffVertices() {
+        return true;
+    }
+
     /**
      * Move the object to the given point.
      *
@@ -274,6 +399,7 @@ public class Polygon implements Shape, Collidable, Movable {
         for (Point vertex : this.vertices) {
             vertex.move(x, y);
         }
+        invalidate();
     }
 
     /**
@@ -294,8 +420,12 @@ public class Polygon implements Shape, Collidable, Movable {
      */
     @Override
     public void transform(double dx, double dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
         for (Point vertex : this.vertices) {
             vertex.transform(dx, dy);
         }
+        invalidate();
     }
 }
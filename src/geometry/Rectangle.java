@@ -79,8 +79,7 @@ public class Rectangle extends Polygon implements Collidable {
      * @return the top left point of the rectangle
      */
     public Point topLeft() {
-        return new Point(Math.min(getVertex(0).getX(), getVertex(2).getX()),
-                Math.min(getVertex(0).getY(), getVertex(2).getY()));
+        return new Point(left(), top());
     }
 
     /**
@@ -105,8 +104,8 @@ public class Rectangle extends Polygon implements Collidable {
      */
     @Override
     public boolean contains(Point point) {
-        return point.getX() > topLeft().getX() && point.getX() < topLeft().getX() + getWidth()
-                && point.getY() > topLeft().getY() && point.getY() < topLeft().getY() + getHeight();
+        return point.getX() > left() && point.getX() < right()
+                && point.getY() > top() && point.getY() < bottom();
     }
 
     /**
@@ -114,8 +113,8 @@ public class Rectangle extends Polygon implements Collidable {
      * @return true if the rectangle contains the circle, false otherwise
      */
     public boolean contains(Circle circle) {
-        return circle.getX() > topLeft().getX() && circle.getX() < topLeft().getX() + getWidth()
-                && circle.getY() > topLeft().getY() && circle.getY() < topLeft().getY() + getHeight()
+        return circle.getX() > left() && circle.getX() < right()
+                && circle.getY() > top() && circle.getY() < bottom()
                 && !circle.isIntersecting(this);
     }
 
@@ -125,8 +124,8 @@ public class Rectangle extends Polygon implements Collidable {
      */
     @Override
     public boolean doesntContain(Point circle) {
-        return circle.getX() <= topLeft().getX() || circle.getX() >= topLeft().getX() + getWidth()
-                || circle.getY() <= topLeft().getY() || circle.getY() >= topLeft().getY() + getHeight();
+        return circle.getX() <= left() || circle.getX() >= right()
+                || circle.getY() <= top() || circle.getY() >= bottom();
     }
 
     /**
@@ -134,11 +133,33 @@ public class Rectangle extends Polygon implements Collidable {
      * @return true if the rectangle does not contain the circle, false otherwise
      */
     public boolean doesntContain(Circle circle) {
-        return (circle.getX() <= topLeft().getX() || circle.getX() >= topLeft().getX() + getWidth()
-                || circle.getY() <= topLeft().getY() || circle.getY() >= topLeft().getY() + getHeight())
+        return (circle.getX() <= left() || circle.getX() >= right()
+                || circle.getY() <= top() || circle.getY() >= bottom())
                 && !circle.isIntersecting(this);
     }
 
+    /**
+     * Checks the edges of the rectangle only if the area the circle swept since its last center
+     * is close enough to the rectangle.
+     *
+     * @param x      the x coordinate of the center of the circle
+     * @param y      the y coordinate of the center of the circle
+     * @param lastX  the x coordinate of the last center of the circle
+     * @param lastY  the y coordinate of the last center of the circle
+     * @param radius the radius of the circle
+     * @return true if the circle intersects with one of the edges of the rectangle, false otherwise
+     */
+    @Override
+    public boolean isIntersecting(double x, double y, double lastX, double lastY, double radius) {
+        if (Math.max(x, lastX) + radius < Math.min(vertexX(0), vertexX(2))
+                || Math.min(x, lastX) - radius > Math.max(vertexX(0), vertexX(2))
+                || Math.max(y, lastY) + radius < Math.min(vertexY(0), vertexY(2))
+                || Math.min(y, lastY) - radius > Math.max(vertexY(0), vertexY(2))) {
+            return false;
+        }
+        return super.isIntersecting(x, y, lastX, lastY, radius);
+    }
+
     /**
      * @return the top left point of the rectangle
      */
@@ -151,21 +172,21 @@ public class Rectangle extends Polygon implements Collidable {
      * @return the bottom right point of the rectangle
      */
     public Point bottomRight() {
-        return topLeft().add(new Point(getWidth(), getHeight()));
+        return new Point(right(), bottom());
     }
 
     /**
      * @return the top right point of the rectangle
      */
     public Point topRight() {
-        return new Point(bottomRight().getX(), topLeft().getY());
+        return new Point(right(), top());
     }
 
     /**
      * @return the bottom left point of the rectangle
      */
     public Point bottomLeft() {
-        return new Point(topLeft().getX(), bottomRight().getY());
+        return new Point(left(), bottom());
     }
 
     /**
@@ -175,7 +196,7 @@ public class Rectangle extends Polygon implements Collidable {
      * @return a list of the intersection points with the line
      */
     public List<Point> intersectionPoints(Line other) {
-        Set<Point> out = new ValueSet<>();
+        Set<Point> out = new ValueSet<>(true);
         for (Line line : getLines()) {
             Point intersection = other.intersectionWith(line);
             if (intersection != null) {
@@ -189,28 +210,28 @@ public class Rectangle extends Polygon implements Collidable {
      * @return the leftmost side of the rectangle
      */
     public double left() {
-        return topLeft().getX();
+        return Math.min(vertexX(0), vertexX(2));
     }
 
     /**
      * @return the rightmost side of the rectangle
      */
     public double right() {
-        return bottomRight().getX();
+        return left() + this.width;
     }
 
     /**
      * @return the topmost side of the rectangle
      */
     public double top() {
-        return topLeft().getY();
+        return Math.min(vertexY(0), vertexY(2));
     }
 
     /**
      * @return the bottommost side of the rectangle
      */
     public double bottom() {
-        return bottomRight().getY();
+        return top() + this.height;
     }
 
     /**
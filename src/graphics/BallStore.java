@@ -0,0 +1,367 @@
+package graphics;
+
+import biuoop.DrawSurface;
+import collision.Collidable;
+import collision.Colliding;
+import geometry.Circle;
+import geometry.Line;
+import geometry.Point;
+import geometry.Polygon;
+import main.GameEnvironment;
+import physics.Velocity;
+import util.Constants;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A collection of many balls, kept as parallel arrays of their coordinates instead of as ball objects.
+ * The balls are collided by the environment and moved by {@link #timePassed()} in tight loops over the
+ * arrays, the same way discrete {@link Ball}s are, without creating objects for the balls that hit nothing.
+ * A {@link Ball} view of a ball is only created when it is asked for, or when the ball hits a collidable,
+ * so the collidable and its listeners have a ball to look at.
+ */
+public class BallStore implements Sprite {
+    private static final int INITIAL_CAPACITY = 16;
+    private final List<Collidable> candidates;
+    private final List<View> pendingRemovals;
+    private double[] x;
+    private double[] y;
+    private double[] vx;
+    private double[] vy;
+    private double[] lastX;
+    private double[] lastY;
+    private double[] radius;
+    private Color[] colors;
+    private View[] views;
+    private int size;
+    private boolean colliding;
+
+    /**
+     * Constructor.
+     */
+    public BallStore() {
+        this.candidates = new ArrayList<>();
+        this.pendingRemovals = new ArrayList<>();
+        this.x = new double[INITIAL_CAPACITY];
+        this.y = new double[INITIAL_CAPACITY];
+        this.vx = new double[INITIAL_CAPACITY];
+        this.vy = new double[INITIAL_CAPACITY];
+        this.lastX = new double[INITIAL_CAPACITY];
+        this.lastY = new double[INITIAL_CAPACITY];
+        this.radius = new double[INITIAL_CAPACITY];
+        this.colors = new Color[INITIAL_CAPACITY];
+        this.views = new View[INITIAL_CAPACITY];
+        this.size = 0;
+        this.colliding = false;
+    }
+
+    /**
+     * Adds a ball to the store.
+     *
+     * @param x      the x coordinate of the center of the ball
+     * @param y      the y coordinate of the center of the ball
+     * @param radius the radius of the ball
+     * @param vx     the x coordinate of the velocity of the ball
+     * @param vy     the y coordinate of the velocity of the ball
+     * @param color  the color of the ball
+     * @return the index of the ball. indexes change when balls are removed.
+     */
+    public int add(double x, double y, int radius, double vx, double vy, Color color) {
+        if (this.size == this.x.length) {
+            grow();
+        }
+        int i = this.size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.lastX[i] = x;
+        this.lastY[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.radius[i] = radius;
+        this.colors[i] = color;
+        this.views[i] = null;
+        return i;
+    }
+
+    /**
+     * @return the number of balls in the store
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param i the index of the ball
+     * @return the x coordinate of the center of the ball
+     */
+    public double getX(int i) {
+        return this.x[i];
+    }
+
+    /**
+     * @param i the index of the ball
+     * @return the y coordinate of the center of the ball
+     */
+    public double getY(int i) {
+        return this.y[i];
+    }
+
+    /**
+     * @param i the index of the ball
+     * @return the x coordinate of the velocity of the ball
+     */
+    public double getVelocityX(int i) {
+        return this.vx[i];
+    }
+
+    /**
+     * @param i the index of the ball
+     * @return the y coordinate of the velocity of the ball
+     */
+    public double getVelocityY(int i) {
+        return this.vy[i];
+    }
+
+    /**
+     * Sets the velocity of a ball.
+     *
+     * @param i  the index of the ball
+     * @param vx the x coordinate of the new velocity
+     * @param vy the y coordinate of the new velocity
+     */
+    public void setVelocity(int i, double vx, double vy) {
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+    }
+
+    /**
+     * Returns a view of a ball, with the current state of the ball.
+     * The view is not updated when the ball moves, and changes to the view do not change the ball,
+     * except for its color.
+     *
+     * @param i the index of the ball
+     * @return the view of the ball
+     */
+    public Ball getBall(int i) {
+        return view(i);
+    }
+
+    /**
+     * Removes a ball from the store, given its view. The last ball takes the index of the removed ball.
+     * Balls that are removed while the store collides are removed when it is done colliding.
+     *
+     * @param c the view of the ball to remove
+     * @return true if the ball was in the store, false otherwise
+     */
+    public boolean remove(Colliding c) {
+        if (!(c instanceof View) || ((View) c).store != this || ((View) c).index < 0) {
+            return false;
+        }
+        View view = (View) c;
+        if (this.colliding) {
+            if (!this.pendingRemovals.contains(view)) {
+                this.pendingRemovals.add(view);
+            }
+            return true;
+        }
+        remove(view.index);
+        return true;
+    }
+
+    /**
+     * Removes a ball from the store. The last ball takes the index of the removed ball.
+     *
+     * @param i the index of the ball to remove
+     */
+    public void remove(int i) {
+        if (this.views[i] != null) {
+            this.views[i].index = -1;
+        }
+        int last = --this.size;
+        this.x[i] = this.x[last];
+        this.y[i] = this.y[last];
+        this.vx[i] = this.vx[last];
+        this.vy[i] = this.vy[last];
+        this.lastX[i] = this.lastX[last];
+        this.lastY[i] = this.lastY[last];
+        this.radius[i] = this.radius[last];
+        this.colors[i] = this.colors[last];
+        this.views[i] = this.views[last];
+        if (this.views[i] != null) {
+            this.views[i].index = i;
+        }
+        this.colors[last] = null;
+        this.views[last] = null;
+    }
+
+    /**
+     * Removes all the balls from the store.
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            if (this.views[i] != null) {
+                this.views[i].index = -1;
+            }
+            this.colors[i] = null;
+            this.views[i] = null;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Collides all the balls with the collidables of the environment, the way the environment collides a
+     * discrete ball: every collidable the ball touches since its last center is hit, at the last center,
+     * and the changes to the velocity are summed.
+     *
+     * @param environment the environment to find the collidables in
+     */
+    public void collide(GameEnvironment environment) {
+        this.colliding = true;
+        try {
+            for (int i = 0; i < this.size; i++) {
+                double r = this.radius[i];
+                this.candidates.clear();
+                environment.query(Math.min(this.x[i], this.lastX[i]) - r, Math.min(this.y[i], this.lastY[i]) - r,
+                        Math.max(this.x[i], this.lastX[i]) + r, Math.max(this.y[i], this.lastY[i]) + r,
+                        this.candidates);
+                double nvx = this.vx[i];
+                double nvy = this.vy[i];
+                boolean hit = false;
+                for (Collidable c : this.candidates) {
+                    if (!touches(i, c)) {
+                        continue;
+                    }
+                    View view = view(i);
+                    view.getCollider().getContext().setEventQueue(environment.getHitEventQueue());
+                    Velocity velocity = new Velocity(this.vx[i], this.vy[i]);
+                    Velocity changed = c.hit(view.getCollider().getContext(),
+                            new Point(this.lastX[i], this.lastY[i]), velocity);
+                    nvx += changed.getX() - velocity.getX();
+                    nvy += changed.getY() - velocity.getY();
+                    this.colors[i] = view.getColor();
+                    hit = true;
+                }
+                if (!hit) {
+                    this.lastX[i] = this.x[i];
+                    this.lastY[i] = this.y[i];
+                }
+                this.vx[i] = nvx;
+                this.vy[i] = nvy;
+            }
+        } finally {
+            this.candidates.clear();
+            this.colliding = false;
+        }
+        for (View view : this.pendingRemovals) {
+            if (view.index >= 0) {
+                remove(view.index);
+            }
+        }
+        this.pendingRemovals.clear();
+    }
+
+    /**
+     * Moves all the balls one step in the direction of their velocities.
+     */
+    @Override
+    public void timePassed() {
+        for (int i = 0; i < this.size; i++) {
+            this.lastX[i] = this.x[i];
+            this.lastY[i] = this.y[i];
+            this.x[i] += this.vx[i] / Constants.FPS;
+            this.y[i] += this.vy[i] / Constants.FPS;
+        }
+    }
+
+    /**
+     * Draws all the balls, the way a {@link Ball} is drawn.
+     *
+     * @param d the DrawSurface to draw on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < this.size; i++) {
+            int cx = (int) Math.round(this.x[i]);
+            int cy = (int) Math.round(this.y[i]);
+            d.setColor(this.colors[i]);
+            d.fillCircle(cx, cy, (int) this.radius[i]);
+            d.setColor(Color.BLACK);
+            d.drawCircle(cx, cy, (int) this.radius[i]);
+        }
+    }
+
+    /**
+     * @param i the index of the ball
+     * @param c the collidable
+     * @return true if the ball touches the collidable since its last center, false otherwise
+     */
+    private boolean touches(int i, Collidable c) {
+        if (c instanceof Line) {
+            Line line = (Line) c;
+            return Circle.intersectionType(this.x[i], this.y[i], this.lastX[i], this.lastY[i], this.radius[i], line)
+                    != Circle.IntersectionType.NO_INTERSECTION;
+        }
+        if (c instanceof Polygon) {
+            return ((Polygon) c).isIntersecting(this.x[i], this.y[i], this.lastX[i], this.lastY[i], this.radius[i]);
+        }
+        return view(i).isIntersecting(c);
+    }
+
+    /**
+     * @param i the index of the ball
+     * @return the view of the ball, created if needed and synced with the arrays
+     */
+    private View view(int i) {
+        View view = this.views[i];
+        if (view == null) {
+            view = new View(this, i, this.lastX[i], this.lastY[i], (int) this.radius[i], this.colors[i]);
+            this.views[i] = view;
+        }
+        view.move(this.lastX[i], this.lastY[i]);
+        view.updateLastCenter();
+        view.move(this.x[i], this.y[i]);
+        view.setVelocity(this.vx[i], this.vy[i]);
+        view.setColor(this.colors[i]);
+        return view;
+    }
+
+    private void grow() {
+        int capacity = this.x.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.vx = Arrays.copyOf(this.vx, capacity);
+        this.vy = Arrays.copyOf(this.vy, capacity);
+        this.lastX = Arrays.copyOf(this.lastX, capacity);
+        this.lastY = Arrays.copyOf(this.lastY, capacity);
+        this.radius = Arrays.copyOf(this.radius, capacity);
+        this.colors = Arrays.copyOf(this.colors, capacity);
+        this.views = Arrays.copyOf(this.views, capacity);
+    }
+
+    /**
+     * A ball that stands for a ball of a store, so it can be passed to collidables and listeners.
+     */
+    private static final class View extends Ball {
+        private final BallStore store;
+        private int index;
+
+        /**
+         * Constructor.
+         *
+         * @param store  the store of the ball
+         * @param index  the index of the ball in the store
+         * @param x      the x coordinate of the center of the ball
+         * @param y      the y coordinate of the center of the ball
+         * @param radius the radius of the ball
+         * @param color  the color of the ball
+         */
+        private View(BallStore store, int index, double x, double y, int radius, Color color) {
+            super(x, y, radius, color);
+            this.store = store;
+            this.index = index;
+        }
+    }
+}
@@ -1,18 +1,18 @@
 package graphics;
 
 import biuoop.DrawSurface;
+import collision.HitContext;
+import collision.HitEventQueue;
 import collision.HitListener;
 import collision.HitNotifier;
 import geometry.Point;
 import geometry.Rectangle;
 import main.Game;
-import main.Main;
 import physics.Velocity;
 import util.DisgustingButYouSaidINeedToHaveItYey;
 import util.ValueSet;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.Objects;
 import java.util.Set;
 
@@ -22,6 +22,7 @@ import java.util.Set;
 public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
     private Color color;
     private final Set<HitListener> hitListeners;
+    private HitListener[] listeners;
 
     /**
      * Copy constructor.
@@ -78,6 +79,7 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
         super(x1, y1, x2, y2);
         this.color = color;
         this.hitListeners = new ValueSet<>();
+        this.listeners = new HitListener[0];
     }
 
     /**
@@ -112,12 +114,11 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
      */
     @Override
     public void drawOn(DrawSurface d) {
-        Point topLeft = topLeft();
         d.setColor(getColor());
-        d.fillRectangle((int) Math.round(topLeft.getX()), (int) Math.round(topLeft.getY()),
+        d.fillRectangle((int) Math.round(left()), (int) Math.round(top()),
                 (int) Math.round(getWidth()), (int) Math.round(getHeight()));
         d.setColor(Color.BLACK);
-        d.drawRectangle((int) Math.round(topLeft.getX()), (int) Math.round(topLeft.getY()),
+        d.drawRectangle((int) Math.round(left()), (int) Math.round(top()),
                 (int) Math.round(getWidth()), (int) Math.round(getHeight()));
     }
 
@@ -157,11 +158,37 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
     public void removeFromGame(Game game) {
         game.removeSprite(this);
         game.removeCollidable(this);
-        game.recalculateCollisions();
+        game.recalculateCollisions(this);
     }
 
-    private void notifyHit(Ball hitter) {
-        new ArrayList<>(this.hitListeners).forEach(hl -> hl.hitEvent(this, hitter));
+    private void notifyHit(Ball hitter, boolean touching) {
+        // the array is replaced (not changed) when listeners are added or removed, so listeners can do both
+        for (HitListener hl : this.listeners) {
+            hl.hitEvent(this, hitter, touching);
+        }
+    }
+
+    /**
+     * Notifies the listeners of a hit that happens now, if the color of the hitter does not match.
+     *
+     * @param hitter the ball that hit this block
+     */
+    public void dispatchHit(Ball hitter) {
+        dispatchHit(hitter, hitter.isIntersecting(this));
+    }
+
+    /**
+     * Notifies the listeners of a hit, if the color of the hitter still does not match.
+     * Queued hits are dispatched through this method, so a ball whose color was changed by an earlier hit of
+     * the same tick does not trigger the listeners.
+     *
+     * @param hitter   the ball that hit this block
+     * @param touching true if the ball intersected this block when the hit happened, false otherwise
+     */
+    public void dispatchHit(Ball hitter, boolean touching) {
+        if (!ballColorMatch(hitter)) {
+            this.notifyHit(hitter, touching);
+        }
     }
 
     /**
@@ -173,15 +200,54 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
      * @return the new velocity after the hit
      */
     public Velocity hit(Ball hitter, Point ignored, Velocity collisionVelocity) {
-        if (!ballColorMatch(hitter)) {
-            this.notifyHit(hitter);
-        }
+        dispatchHit(hitter);
         return collisionVelocity;
     }
 
+    /**
+     * Handles a hit event by an unknown hitter. No listener is notified.
+     *
+     * @param collisionPoint    the point of collision
+     * @param collisionVelocity the velocity of the collision
+     * @return the new velocity after the hit
+     */
     @Override
     public Velocity hit(Point collisionPoint, Velocity collisionVelocity) {
-        return hit(Main.getGame().findBall(collisionPoint).orElseThrow(), collisionPoint, collisionVelocity);
+        return collisionVelocity;
+    }
+
+    /**
+     * A block does not bounce circles off its vertices: it leaves the bounce to its edges, and a paddle maps the
+     * bounce angle itself.
+     *
+     * @return false
+     */
+    @Override
+    public boolean bouncesOffVertices() {
+        return false;
+    }
+
+    /**
+     * Handles a hit event. If the hitter is a ball whose color does not match, the listeners are notified,
+     * or the hit is queued if the context has an event queue.
+     *
+     * @param context           the context of the hit, which holds the hitter
+     * @param collisionPoint    the point of collision
+     * @param collisionVelocity the velocity of the collision
+     * @return the new velocity after the hit
+     */
+    @Override
+    public Velocity hit(HitContext context, Point collisionPoint, Velocity collisionVelocity) {
+        if (context.getHitter() instanceof Ball && !ballColorMatch((Ball) context.getHitter())) {
+            Ball hitter = (Ball) context.getHitter();
+            HitEventQueue queue = context.getEventQueue();
+            if (queue != null) {
+                queue.add(this, hitter);
+            } else {
+                this.notifyHit(hitter, hitter.isIntersecting(this));
+            }
+        }
+        return hit(collisionPoint, collisionVelocity);
     }
 
     /**
@@ -191,7 +257,9 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        this.hitListeners.add(hl);
+        if (this.hitListeners.add(hl)) {
+            this.listeners = this.hitListeners.toArray(new HitListener[0]);
+        }
     }
 
     /**
@@ -201,6 +269,8 @@ public class Block extends Rectangle implements Sprite, Colored, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        this.hitListeners.remove(hl);
+        if (this.hitListeners.remove(hl)) {
+            this.listeners = this.hitListeners.toArray(new HitListener[0]);
+        }
     }
 }
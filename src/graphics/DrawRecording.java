@@ -0,0 +1,191 @@
+package graphics;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.util.Arrays;
+
+/**
+ * A draw surface that records the calls made on it, so they can be replayed on another surface later,
+ * possibly by another thread.
+ * The recorded arguments are copied or immutable, so a recording is a snapshot of what the sprites looked like
+ * when they were drawn on it, and does not change when the sprites do. Images are recorded by reference, so
+ * they must not be changed after they were drawn.
+ * A recording keeps its arrays between frames, so recording the same scene again allocates nothing.
+ */
+public class DrawRecording implements DrawSurface {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SET_COLOR = 0;
+    private static final int DRAW_LINE = 1;
+    private static final int DRAW_OVAL = 2;
+    private static final int FILL_OVAL = 3;
+    private static final int DRAW_RECTANGLE = 4;
+    private static final int FILL_RECTANGLE = 5;
+    private static final int DRAW_IMAGE = 6;
+    private static final int DRAW_CIRCLE = 7;
+    private static final int FILL_CIRCLE = 8;
+    private static final int DRAW_TEXT = 9;
+    private static final int DRAW_POLYGON = 10;
+    private static final int FILL_POLYGON = 11;
+    private static final int MAX_ARGS = 4;
+    private final int width;
+    private final int height;
+    private int[] ops;
+    private int[] args;
+    private Object[] refs;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param width  the width of the surface
+     * @param height the height of the surface
+     */
+    public DrawRecording(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.ops = new int[INITIAL_CAPACITY];
+        this.args = new int[INITIAL_CAPACITY * MAX_ARGS];
+        this.refs = new Object[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of recorded calls
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes all the recorded calls.
+     */
+    public void clear() {
+        Arrays.fill(this.refs, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Makes all the recorded calls on another surface, in the order they were recorded.
+     *
+     * @param d the draw surface to draw on
+     */
+    public void replayOn(DrawSurface d) {
+        for (int i = 0; i < this.size; i++) {
+            int a = i * MAX_ARGS;
+            int[] p = this.args;
+            switch (this.ops[i]) {
+                case SET_COLOR -> d.setColor((Color) this.refs[i]);
+                case DRAW_LINE -> d.drawLine(p[a], p[a + 1], p[a + 2], p[a + 3]);
+                case DRAW_OVAL -> d.drawOval(p[a], p[a + 1], p[a + 2], p[a + 3]);
+                case FILL_OVAL -> d.fillOval(p[a], p[a + 1], p[a + 2], p[a + 3]);
+                case DRAW_RECTANGLE -> d.drawRectangle(p[a], p[a + 1], p[a + 2], p[a + 3]);
+                case FILL_RECTANGLE -> d.fillRectangle(p[a], p[a + 1], p[a + 2], p[a + 3]);
+                case DRAW_IMAGE -> d.drawImage(p[a], p[a + 1], (Image) this.refs[i]);
+                case DRAW_CIRCLE -> d.drawCircle(p[a], p[a + 1], p[a + 2]);
+                case FILL_CIRCLE -> d.fillCircle(p[a], p[a + 1], p[a + 2]);
+                case DRAW_TEXT -> d.drawText(p[a], p[a + 1], (String) this.refs[i], p[a + 2]);
+                case DRAW_POLYGON -> d.drawPolygon((Polygon) this.refs[i]);
+                case FILL_POLYGON -> d.fillPolygon((Polygon) this.refs[i]);
+                default -> throw new IllegalStateException("Unknown draw call " + this.ops[i]);
+            }
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        record(SET_COLOR, 0, 0, 0, 0, color);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        record(DRAW_LINE, x1, y1, x2, y2, null);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        record(DRAW_OVAL, x, y, width, height, null);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        record(FILL_OVAL, x, y, width, height, null);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        record(DRAW_RECTANGLE, x, y, width, height, null);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        record(FILL_RECTANGLE, x, y, width, height, null);
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        record(DRAW_IMAGE, x, y, 0, 0, image);
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        record(DRAW_CIRCLE, x, y, r, 0, null);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        record(FILL_CIRCLE, x, y, r, 0, null);
+    }
+
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        record(DRAW_TEXT, x, y, fontSize, 0, text);
+    }
+
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        record(DRAW_POLYGON, 0, 0, 0, 0, new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints));
+    }
+
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        record(FILL_POLYGON, 0, 0, 0, 0, new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints));
+    }
+
+    /**
+     * @param op  the call
+     * @param a0  the first int argument
+     * @param a1  the second int argument
+     * @param a2  the third int argument
+     * @param a3  the fourth int argument
+     * @param ref the object argument, or null
+     */
+    private void record(int op, int a0, int a1, int a2, int a3, Object ref) {
+        if (this.size == this.ops.length) {
+            int capacity = this.ops.length * 2;
+            this.ops = Arrays.copyOf(this.ops, capacity);
+            this.args = Arrays.copyOf(this.args, capacity * MAX_ARGS);
+            this.refs = Arrays.copyOf(this.refs, capacity);
+        }
+        int a = this.size * MAX_ARGS;
+        this.ops[this.size] = op;
+        this.args[a] = a0;
+        this.args[a + 1] = a1;
+        this.args[a + 2] = a2;
+        this.args[a + 3] = a3;
+        this.refs[this.size] = ref;
+        this.size++;
+    }
+}
@@ -9,6 +9,7 @@ import physics.Physical;
 import physics.Velocity;
 import util.Constants;
 import util.DisgustingButYouSaidINeedToHaveItYey;
+import util.TrigTable;
 
 import java.awt.Color;
 
@@ -16,6 +17,7 @@ import java.awt.Color;
  * A paddle is a block that can move left and right.
  */
 public class Paddle extends Block implements Physical {
+    private static final TrigTable BOUNCE_ANGLES = new TrigTable(0, Math.PI, Constants.BOUNCE_ANGLE_STEPS);
     private final KeyboardSensor keyboard;
     private final Velocity velocity;
 
@@ -168,7 +170,7 @@ public class Paddle extends Block implements Physical {
         } else {
             stop();
         }
-        transform(this.velocity.withFPS(Constants.FPS));
+        this.velocity.applyStep(this, Constants.FPS);
     }
 
 
@@ -192,7 +194,10 @@ public class Paddle extends Block implements Physical {
         double percentage = 1 - (collisionPoint.getX() - left()) / getWidth();
         percentage *= Constants.PADDLE_BOUNCING_RANGE;
         percentage += (1 - Constants.PADDLE_BOUNCING_RANGE) / 2;
-        return new Line(left(), bottom(), right(), bottom()).hit(collisionPoint,
-                Velocity.fromAngleAndSpeed(percentage * Math.PI, collisionVelocity.getSpeed()));
+        double angle = percentage * Math.PI;
+        double speed = collisionVelocity.getSpeed();
+        // bounces off the bottom of the paddle, whose normal points down
+        return Line.reflectInto(0, 1, collisionPoint.getY() - bottom(), BOUNCE_ANGLES.cos(angle) * speed,
+                BOUNCE_ANGLES.sin(angle) * speed, new Velocity(0, 0));
     }
 }
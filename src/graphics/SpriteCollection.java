@@ -1,35 +1,114 @@
 package graphics;
 
 import biuoop.DrawSurface;
+import geometry.Rectangle;
+import geometry.Shape;
 import util.ValueSet;
 
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * A class that represents a collection of sprites.
+ * Sprites are either drawn sorted by a comparator, or, when there is no comparator, by the z-layer they
+ * were added with (lower layers first, and in insertion order within a layer).
+ * <p>
+ * Layers can be marked static, for sprites that do not change on their own. Every run of consecutive static
+ * layers is drawn once into an offscreen image, and the image is drawn instead of the sprites of the run.
+ * Adding or removing a sprite of a static layer only redraws the region of the sprite (on a copy of the image
+ * when it is drawn on a {@link DrawRecording}, which may still show it); a sprite of a static layer that
+ * changes otherwise must be invalidated with {@link #invalidate(Sprite)}.
  */
 public class SpriteCollection {
+    public static final int DEFAULT_LAYER = 0;
     private final Set<Sprite> sprites;
     private final Comparator<Sprite> spriteComparator;
+    private final Map<Sprite, Layer> layerOf;
+    private Layer[] layers;
+    private int layerCount;
+    private boolean runsValid;
+
+    /**
+     * Constructor for a collection that draws its sprites by their layers.
+     */
+    public SpriteCollection() {
+        this(null);
+    }
 
     /**
      * Constructor.
      *
-     * @param spriteComparator the comparator to sort the sprites
+     * @param spriteComparator the comparator to sort the sprites, or null to draw them by their layers
      */
     public SpriteCollection(Comparator<Sprite> spriteComparator) {
         this.spriteComparator = spriteComparator;
         this.sprites = new ValueSet<>();
+        this.layerOf = new HashMap<>();
+        this.layers = new Layer[1];
+        this.layerCount = 0;
+        this.runsValid = false;
     }
 
     /**
-     * Adds a sprite to the collection.
+     * Adds a sprite to the collection, in the default layer.
      *
      * @param s the sprite to add
      */
     public void addSprite(Sprite s) {
-        this.sprites.add(s);
+        addSprite(s, DEFAULT_LAYER);
+    }
+
+    /**
+     * Adds a sprite to the collection, in the given layer.
+     * If the sprite is already in the collection, it is moved to the given layer.
+     *
+     * @param s     the sprite to add
+     * @param layer the z-layer of the sprite. ignored when the collection is sorted by a comparator.
+     */
+    public void addSprite(Sprite s, int layer) {
+        if (!this.sprites.add(s)) {
+            setLayer(s, layer);
+            return;
+        }
+        if (this.spriteComparator == null) {
+            Layer l = layer(layer);
+            l.add(s);
+            this.layerOf.put(s, l);
+            l.invalidate(s);
+        }
+    }
+
+    /**
+     * Moves a sprite to another layer. This is the only time the drawing order is changed.
+     *
+     * @param s     the sprite to move
+     * @param layer the new z-layer of the sprite
+     */
+    public void setLayer(Sprite s, int layer) {
+        Layer current = this.layerOf.get(s);
+        if (current == null || current.z == layer) {
+            return;
+        }
+        current.remove(s);
+        current.invalidate(s);
+        Layer l = layer(layer);
+        l.add(s);
+        this.layerOf.put(s, l);
+        l.invalidate(s);
+    }
+
+    /**
+     * @param s the sprite
+     * @return the z-layer of the sprite, or the default layer if it is not in a layer
+     */
+    public int getLayer(Sprite s) {
+        Layer l = this.layerOf.get(s);
+        return l == null ? DEFAULT_LAYER : l.z;
     }
 
     /**
@@ -37,6 +116,11 @@ public class SpriteCollection {
      */
     public void clear() {
         this.sprites.clear();
+        this.layerOf.clear();
+        for (int i = 0; i < this.layerCount; i++) {
+            this.layers[i].clear();
+        }
+        invalidate();
     }
 
     /**
@@ -46,6 +130,62 @@ public class SpriteCollection {
      */
     public void removeSprite(Sprite s) {
         this.sprites.remove(s);
+        Layer l = this.layerOf.remove(s);
+        if (l != null) {
+            l.remove(s);
+            l.invalidate(s);
+        }
+    }
+
+    /**
+     * Marks a layer as static or dynamic. The sprites of static layers are drawn from a cached image.
+     *
+     * @param layer    the z-layer
+     * @param isStatic true if the sprites of the layer do not change on their own, false otherwise
+     */
+    public void setStatic(int layer, boolean isStatic) {
+        Layer l = layer(layer);
+        if (l.isStatic != isStatic) {
+            l.isStatic = isStatic;
+            this.runsValid = false;
+        }
+    }
+
+    /**
+     * @param layer the z-layer
+     * @return true if the layer is static, false otherwise
+     */
+    public boolean isStatic(int layer) {
+        for (int i = 0; i < this.layerCount; i++) {
+            if (this.layers[i].z == layer) {
+                return this.layers[i].isStatic;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Redraws the region of a sprite of a static layer in the cached image, the next time the sprites are drawn.
+     * A sprite that moved should be invalidated both before and after it moves.
+     *
+     * @param s the sprite that changed
+     */
+    public void invalidate(Sprite s) {
+        Layer l = this.layerOf.get(s);
+        if (l != null) {
+            l.invalidate(s);
+        }
+    }
+
+    /**
+     * Redraws all the static layers the next time the sprites are drawn.
+     */
+    public void invalidate() {
+        for (int i = 0; i < this.layerCount; i++) {
+            if (this.layers[i].run != null) {
+                this.layers[i].run.invalidate();
+            }
+        }
     }
 
     /**
@@ -63,8 +203,287 @@ public class SpriteCollection {
      * @param d the draw surface to draw on
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite s : this.sprites.stream().sorted(this.spriteComparator).toList()) {
-            s.drawOn(d);
+        if (this.spriteComparator != null) {
+            for (Sprite s : this.sprites.stream().sorted(this.spriteComparator).toList()) {
+                s.drawOn(d);
+            }
+            return;
+        }
+        int width = d.getWidth();
+        int height = d.getHeight();
+        if (width <= 0 || height <= 0) {
+            for (int i = 0; i < this.layerCount; i++) {
+                this.layers[i].drawOn(d);
+            }
+            return;
+        }
+        if (!this.runsValid) {
+            buildRuns();
+        }
+        for (int i = 0; i < this.layerCount; i++) {
+            Run run = this.layers[i].run;
+            if (run == null) {
+                this.layers[i].drawOn(d);
+                continue;
+            }
+            run.drawOn(d, width, height);
+            i = run.to;
+        }
+    }
+
+    /**
+     * Groups the consecutive static layers into runs, each drawn from its own image.
+     */
+    private void buildRuns() {
+        int i = 0;
+        while (i < this.layerCount) {
+            if (!this.layers[i].isStatic) {
+                this.layers[i++].run = null;
+                continue;
+            }
+            int from = i;
+            while (i + 1 < this.layerCount && this.layers[i + 1].isStatic) {
+                i++;
+            }
+            Layer[] members = new Layer[i - from + 1];
+            System.arraycopy(this.layers, from, members, 0, members.length);
+            Run run = new Run(members, i);
+            for (Layer l : members) {
+                l.run = run;
+            }
+            i++;
+        }
+        this.runsValid = true;
+    }
+
+    /**
+     * @param z the z-layer
+     * @return the layer, which is created (in its sorted place) if it does not exist yet
+     */
+    private Layer layer(int z) {
+        int i = 0;
+        while (i < this.layerCount && this.layers[i].z < z) {
+            i++;
+        }
+        if (i < this.layerCount && this.layers[i].z == z) {
+            return this.layers[i];
+        }
+        if (this.layerCount == this.layers.length) {
+            Layer[] grown = new Layer[this.layers.length * 2];
+            System.arraycopy(this.layers, 0, grown, 0, this.layerCount);
+            this.layers = grown;
+        }
+        System.arraycopy(this.layers, i, this.layers, i + 1, this.layerCount - i);
+        this.layers[i] = new Layer(z);
+        this.layerCount++;
+        this.runsValid = false;
+        return this.layers[i];
+    }
+
+    /**
+     * The sprites of a single z-layer, in insertion order.
+     */
+    private static final class Layer {
+        private final int z;
+        private Sprite[] sprites;
+        private int size;
+        private boolean isStatic;
+        private Run run;
+
+        /**
+         * Constructor.
+         *
+         * @param z the z-layer
+         */
+        private Layer(int z) {
+            this.z = z;
+            this.sprites = new Sprite[8];
+            this.size = 0;
+            this.isStatic = false;
+            this.run = null;
+        }
+
+        /**
+         * @param s the sprite to add at the end of the layer
+         */
+        private void add(Sprite s) {
+            if (this.size == this.sprites.length) {
+                Sprite[] grown = new Sprite[this.sprites.length * 2];
+                System.arraycopy(this.sprites, 0, grown, 0, this.size);
+                this.sprites = grown;
+            }
+            this.sprites[this.size++] = s;
+        }
+
+        /**
+         * @param s the sprite to remove, keeping the order of the rest
+         */
+        private void remove(Sprite s) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.sprites[i] == s) {
+                    System.arraycopy(this.sprites, i + 1, this.sprites, i, this.size - i - 1);
+                    this.sprites[--this.size] = null;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes all the sprites from the layer.
+         */
+        private void clear() {
+            for (int i = 0; i < this.size; i++) {
+                this.sprites[i] = null;
+            }
+            this.size = 0;
+        }
+
+        /**
+         * @param d the draw surface to draw the sprites of the layer on
+         */
+        private void drawOn(DrawSurface d) {
+            for (int i = 0; i < this.size; i++) {
+                this.sprites[i].drawOn(d);
+            }
+        }
+
+        /**
+         * @param s the sprite whose region should be redrawn in the image of the layer, if the layer is static
+         */
+        private void invalidate(Sprite s) {
+            if (this.run != null) {
+                this.run.invalidate(s);
+            }
+        }
+    }
+
+    /**
+     * A run of consecutive static layers, and the image they are drawn into.
+     * The image is only redrawn in its dirty region, by clearing the region and drawing the sprites that
+     * overlap it, clipped to it.
+     */
+    private static final class Run {
+        private static final int STROKE_MARGIN = 2;
+        private final Layer[] layers;
+        private final int to;
+        private BufferedImage image;
+        private java.awt.Rectangle dirty;
+        private boolean allDirty;
+
+        /**
+         * Constructor.
+         *
+         * @param layers the layers of the run, from the lowest
+         * @param to     the index of the highest layer of the run in the collection
+         */
+        private Run(Layer[] layers, int to) {
+            this.layers = layers;
+            this.to = to;
+            this.image = null;
+            this.dirty = null;
+            this.allDirty = true;
+        }
+
+        /**
+         * Marks the whole image to be redrawn.
+         */
+        private void invalidate() {
+            this.allDirty = true;
+            this.dirty = null;
+        }
+
+        /**
+         * Marks the region of a sprite to be redrawn. Sprites that are not shapes have no known region, so they
+         * mark the whole image.
+         *
+         * @param s the sprite
+         */
+        private void invalidate(Sprite s) {
+            if (this.allDirty) {
+                return;
+            }
+            java.awt.Rectangle region = region(s);
+            if (region == null) {
+                invalidate();
+            } else if (this.dirty == null) {
+                this.dirty = region;
+            } else {
+                this.dirty.add(region);
+            }
+        }
+
+        /**
+         * Redraws the dirty region of the image if there is one, and draws the image.
+         *
+         * @param d      the draw surface to draw on
+         * @param width  the width of the surface
+         * @param height the height of the surface
+         */
+        private void drawOn(DrawSurface d, int width, int height) {
+            // A recording keeps the image to show it later, maybe on another thread, so an image that was
+            // recorded is never changed again, and is replaced by a new image or a copy before it is redrawn.
+            // Other surfaces are done with the image once they are shown, so it is redrawn in place.
+            boolean kept = d instanceof DrawRecording;
+            if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height) {
+                this.image = null;
+                invalidate();
+            }
+            if (this.allDirty) {
+                if (this.image == null || kept) {
+                    this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                }
+                this.dirty = new java.awt.Rectangle(0, 0, width, height);
+            } else if (this.dirty != null && kept) {
+                this.image = new BufferedImage(this.image.getColorModel(), this.image.copyData(null),
+                        this.image.isAlphaPremultiplied(), null);
+            }
+            if (this.dirty != null) {
+                redraw(width, height);
+            }
+            d.drawImage(0, 0, this.image);
+        }
+
+        /**
+         * @param width  the width of the image
+         * @param height the height of the image
+         */
+        private void redraw(int width, int height) {
+            Graphics2D g = this.image.createGraphics();
+            try {
+                g.setClip(this.dirty);
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(this.dirty.x, this.dirty.y, this.dirty.width, this.dirty.height);
+                g.setComposite(AlphaComposite.SrcOver);
+                DrawSurface surface = new ImageDrawSurface(g, width, height);
+                for (Layer l : this.layers) {
+                    for (int i = 0; i < l.size; i++) {
+                        java.awt.Rectangle region = region(l.sprites[i]);
+                        if (region == null || region.intersects(this.dirty)) {
+                            l.sprites[i].drawOn(surface);
+                        }
+                    }
+                }
+            } finally {
+                g.dispose();
+            }
+            this.dirty = null;
+            this.allDirty = false;
+        }
+
+        /**
+         * @param s the sprite
+         * @return the pixels the sprite may draw on, or null if they are not known
+         */
+        private static java.awt.Rectangle region(Sprite s) {
+            if (!(s instanceof Shape)) {
+                return null;
+            }
+            Rectangle bounds = ((Shape) s).getBounds();
+            int left = (int) Math.floor(bounds.left()) - STROKE_MARGIN;
+            int top = (int) Math.floor(bounds.top()) - STROKE_MARGIN;
+            int right = (int) Math.ceil(bounds.right()) + STROKE_MARGIN;
+            int bottom = (int) Math.ceil(bounds.bottom()) + STROKE_MARGIN;
+            return new java.awt.Rectangle(left, top, right - left, bottom - top);
         }
     }
 }
@@ -102,6 +102,6 @@ public class AnimatedBlock extends Block implements AnimatedSprite {
     @Override
     public void drawOn(DrawSurface d) {
         super.drawOn(d);
-        d.drawImage((int) Math.round(topLeft().getX()), (int) Math.round(topLeft().getY()), this.animator.get());
+        d.drawImage((int) Math.round(left()), (int) Math.round(top()), this.animator.get());
     }
 }
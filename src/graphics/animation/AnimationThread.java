@@ -2,16 +2,22 @@ package graphics.animation;
 
 import biuoop.GUI;
 import biuoop.Sleeper;
+import util.Constants;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This class represents a thread that runs an graphics.animation.
  * It is responsible for updating the graphics.animation and drawing it on the GUI.
  */
 public abstract class AnimationThread extends Thread {
-    private static int id = 0;
+    private static final AtomicInteger ID = new AtomicInteger();
     private final int fps;
     private final GUI gui;
-    private boolean running;
+    private final LoopMode loopMode;
+    private volatile boolean running;
+    private Thread renderThread;
 
     /**
      * Draws the frame on the GUI.
@@ -20,11 +26,41 @@ public abstract class AnimationThread extends Thread {
      */
     public abstract void draw(GUI gui);
 
+    /**
+     * Draws the frame on the GUI, between the last update and the next one.
+     * By default the interpolation is ignored and the state of the last update is drawn.
+     *
+     * @param gui   the GUI to draw on
+     * @param alpha how far the frame is from the last update towards the next one, in [0, 1)
+     */
+    public void draw(GUI gui, double alpha) {
+        draw(gui);
+    }
+
     /**
      * Updates the graphics.animation.
      */
     public abstract void update();
 
+    /**
+     * Publishes the state of the last update for the render thread to draw, in decoupled mode.
+     * Called on the animation thread after the updates of a frame. By default nothing is published.
+     */
+    public void publish() {
+
+    }
+
+    /**
+     * Draws the last published state on the GUI, in decoupled mode. Called on the render thread.
+     * By default nothing is drawn.
+     *
+     * @param gui the GUI to draw on
+     * @return true if a new state was drawn, false if nothing was published since the last one
+     */
+    public boolean render(GUI gui) {
+        return false;
+    }
+
     /**
      * Constructor.
      *
@@ -32,9 +68,28 @@ public abstract class AnimationThread extends Thread {
      * @param fps the frames per second
      */
     public AnimationThread(GUI gui, int fps) {
-        super("AnimationThread-" + id++);
+        this(gui, fps, LoopMode.LOCKSTEP);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param gui      the GUI to draw on
+     * @param fps      the frames per second. in fixed timestep mode, the updates per second.
+     * @param loopMode the way updates and draws are scheduled
+     */
+    public AnimationThread(GUI gui, int fps, LoopMode loopMode) {
+        super("AnimationThread-" + ID.getAndIncrement());
         this.fps = fps;
         this.gui = gui;
+        this.loopMode = loopMode;
+    }
+
+    /**
+     * @return the way updates and draws are scheduled
+     */
+    public LoopMode getLoopMode() {
+        return this.loopMode;
     }
 
     /**
@@ -43,6 +98,15 @@ public abstract class AnimationThread extends Thread {
     @Override
     public void run() {
         this.running = true;
+        if (this.loopMode == LoopMode.DECOUPLED) {
+            this.renderThread = new Thread(this::runRenderer, getName() + "-Render");
+            this.renderThread.setDaemon(true);
+            this.renderThread.start();
+        }
+        if (this.loopMode != LoopMode.LOCKSTEP) {
+            runFixedTimestep();
+            return;
+        }
         Sleeper sleeper = new Sleeper();
         while (this.running) {
             long time = System.currentTimeMillis();
@@ -55,11 +119,73 @@ public abstract class AnimationThread extends Thread {
     }
 
     /**
-     * Interrupts the graphics animation thread.
+     * Runs as many updates as the elapsed time owes, then draws once with the leftover fraction of an update.
+     * When the updates fall too far behind, the owed time is dropped instead of spiraling.
+     * In decoupled mode, the state is published to the render thread instead of being drawn.
+     */
+    private void runFixedTimestep() {
+        long step = Math.round(1E9 / this.fps);
+        long accumulator = 0;
+        long previous = System.nanoTime();
+        while (this.running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            int updates = 0;
+            while (accumulator >= step && updates < Constants.MAX_UPDATES_PER_FRAME) {
+                update();
+                accumulator -= step;
+                updates++;
+            }
+            if (accumulator >= step) {
+                accumulator %= step;
+            }
+            if (this.loopMode == LoopMode.DECOUPLED) {
+                if (updates > 0) {
+                    publish();
+                    LockSupport.unpark(this.renderThread);
+                }
+            } else {
+                draw(this.gui, (double) accumulator / step);
+            }
+            long wait = step - accumulator - (System.nanoTime() - now);
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Draws every state that is published, and waits for the next one when there is nothing new to draw.
+     */
+    private void runRenderer() {
+        while (this.running) {
+            if (!render(this.gui)) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Interrupts the graphics animation thread, and its render thread if it has one.
      */
     @Override
     public void interrupt() {
         this.running = false;
+        if (this.renderThread != null) {
+            LockSupport.unpark(this.renderThread);
+        }
         super.interrupt();
     }
+
+    /**
+     * The ways updates and draws are scheduled.
+     * In lockstep mode every frame updates once and draws once, so the simulation slows down with the rendering.
+     * In fixed timestep mode the updates run at a fixed rate, independent of how fast frames are drawn.
+     * In decoupled mode the updates run at a fixed rate too, and the frames are drawn and shown by a separate
+     * render thread, so a slow GUI does not hold the updates back.
+     */
+    public enum LoopMode {
+        LOCKSTEP, FIXED_TIMESTEP, DECOUPLED
+    }
 }
@@ -0,0 +1,81 @@
+package graphics.animation;
+
+import graphics.DrawRecording;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A triple buffer of recorded frames, to hand frames from the thread that updates the game to the thread that
+ * shows them without locks.
+ * The writer records into its own back buffer and publishes it by swapping it with the middle buffer, and the
+ * reader takes the middle buffer by swapping it with its own front buffer, so each buffer is only ever used by
+ * one thread at a time. The reader always gets the latest published frame, and frames it was too slow for are
+ * dropped.
+ */
+public class SnapshotBuffer {
+    private final AtomicReference<Slot> middle;
+    private Slot back;
+    private Slot front;
+
+    /**
+     * Constructor.
+     *
+     * @param width  the width of the recorded frames
+     * @param height the height of the recorded frames
+     */
+    public SnapshotBuffer(int width, int height) {
+        this.back = new Slot(new DrawRecording(width, height));
+        this.middle = new AtomicReference<>(new Slot(new DrawRecording(width, height)));
+        this.front = new Slot(new DrawRecording(width, height));
+    }
+
+    /**
+     * Called by the writer only.
+     *
+     * @return the cleared recording to record the next frame into
+     */
+    public DrawRecording beginWrite() {
+        this.back.recording.clear();
+        return this.back.recording;
+    }
+
+    /**
+     * Publishes the recording returned by {@link #beginWrite()}. Called by the writer only.
+     */
+    public void publish() {
+        this.back.fresh = true;
+        this.back = this.middle.getAndSet(this.back);
+    }
+
+    /**
+     * Takes the latest published recording. Called by the reader only.
+     *
+     * @return the latest recording, or null if none was published since the last call
+     */
+    public DrawRecording acquire() {
+        if (!this.middle.get().fresh) {
+            return null;
+        }
+        this.front.fresh = false;
+        this.front = this.middle.getAndSet(this.front);
+        return this.front.recording;
+    }
+
+    /**
+     * A recording, and whether it was published and not taken yet.
+     */
+    private static final class Slot {
+        private final DrawRecording recording;
+        private volatile boolean fresh;
+
+        /**
+         * Constructor.
+         *
+         * @param recording the recording of the slot
+         */
+        private Slot(DrawRecording recording) {
+            this.recording = recording;
+            this.fresh = false;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package main;
 import collision.BallRemover;
 import collision.BlockRemover;
 import collision.Collidable;
+import collision.CollisionEdges;
 import collision.ScoreTrackingListener;
 import geometry.Line;
 import geometry.Point;
@@ -11,20 +12,16 @@ import graphics.Ball;
 import graphics.Block;
 import graphics.Paddle;
 import graphics.ScoreText;
-import graphics.Sprite;
 import graphics.Text;
 import util.Constants;
 import util.Counter;
-import util.LineUtils;
 import util.MathUtils;
-import util.ValueMap;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * The main class of the game for ass3.
@@ -38,8 +35,8 @@ public class Ass5Game extends Game {
     private final List<Ball> balls;
     private final List<Block> blocks;
     private final List<Block> rectangles;
-    private final List<Line> collidables;
-    private final Map<Sprite, Integer> comparator;
+    private final Set<Line> collidables;
+    private final CollisionEdges edges;
     private final Counter remainingBlocks;
     private final Counter remainingBalls;
     private final BlockRemover blockRemover;
@@ -64,10 +61,10 @@ public class Ass5Game extends Game {
      */
     public Ass5Game() {
         super();
-        this.comparator = new ValueMap<>();
         this.blocks = new ArrayList<>();
         this.rectangles = new ArrayList<>();
-        this.collidables = new ArrayList<>();
+        this.collidables = new LinkedHashSet<>();
+        this.edges = new CollisionEdges();
         this.balls = new ArrayList<>();
         this.remainingBlocks = new Counter(0);
         this.remainingBalls = new Counter(2);
@@ -75,20 +72,11 @@ public class Ass5Game extends Game {
         this.ballRemover = new BallRemover(this, this.remainingBalls);
         this.scoreTracker = new ScoreTrackingListener(this.getScore());
         this.score = new ScoreText(new Point((double) Constants.WIDTH / 2 - 50, 20), getScore());
-    }
-
-    /**
-     * @return the list of collidables
-     */
-    @Override
-    public Comparator<Sprite> spriteComparator() {
-        return (o1, o2) -> this.comparator.get(o1) - this.comparator.get(o2);
-    }
-
-    @Override
-    public void removeSprite(Sprite s) {
-        this.comparator.remove(s);
-        super.removeSprite(s);
+        // Everything but the balls, the paddles and the score only changes when a block is removed.
+        getSprites().setStatic(BACKGROUND_PRIORITY, true);
+        getSprites().setStatic(BORDER_PRIORITY, true);
+        getSprites().setStatic(RECT_PRIORITY, true);
+        getSprites().setStatic(BLOCK_PRIORITY, true);
     }
 
     /**
@@ -102,12 +90,16 @@ public class Ass5Game extends Game {
         if (this.gameOver == 5) {
             if (this.remainingBlocks.getValue() == 0) {
                 System.out.println("You Win!\nYour score is: " + getScore().getValue());
-                this.getGui().getDialogManager().showInformationDialog("You Win Dialog", "You Win! Score: "
-                        + getScore().getValue());
+                if (this.getGui() != null) {
+                    this.getGui().getDialogManager().showInformationDialog("You Win Dialog", "You Win! Score: "
+                            + getScore().getValue());
+                }
             } else {
                 System.out.println("Game Over.\nYour score is: " + getScore().getValue());
-                this.getGui().getDialogManager().showInformationDialog("Game Over Dialog", "Game Over. Score: "
-                        + getScore().getValue());
+                if (this.getGui() != null) {
+                    this.getGui().getDialogManager().showInformationDialog("Game Over Dialog", "Game Over. Score: "
+                            + getScore().getValue());
+                }
             }
             stop();
         }
@@ -135,21 +127,16 @@ public class Ass5Game extends Game {
     @Override
     public void createAll() {
         this.background = new Block(SCREEN_RECT, Color.GRAY);
-        this.comparator.put(this.background, BACKGROUND_PRIORITY);
         this.gameBorder = new Block(GAME_RECT, Color.getHSBColor(0.11f, 0.78f, 0.92f));
-        this.comparator.put(this.gameBorder, BORDER_PRIORITY);
         this.paddle = new Paddle(new Point((Constants.WIDTH - Constants.PADDLE_WIDTH) / 2.0,
                 Constants.HEIGHT - GAME_BORDER - Constants.PADDLE_HEIGHT),
                 Constants.PADDLE_WIDTH,
                 Constants.PADDLE_HEIGHT,
-                Color.YELLOW, this.getGui().getKeyboardSensor());
-        this.comparator.put(this.paddle, PADDLE_PRIORITY);
+                Color.YELLOW, this.getKeyboardSensor());
         this.rightPaddle = new Paddle(this.paddle);
         this.rightPaddle.transform(GAME_RECT.getWidth(), 0);
-        this.comparator.put(this.rightPaddle, PADDLE_PRIORITY);
         this.leftPaddle = new Paddle(this.paddle);
         this.leftPaddle.transform(-GAME_RECT.getWidth(), 0);
-        this.comparator.put(this.leftPaddle, PADDLE_PRIORITY);
         this.balls.add(new Ball(Constants.WIDTH / 2.0 - Constants.BALL_RADIUS * 2 + 0.1,
                 this.paddle.top() - Constants.BALL_RADIUS,
                 Constants.BALL_RADIUS, Color.WHITE));
@@ -157,14 +144,13 @@ public class Ass5Game extends Game {
                 this.paddle.top() - Constants.BALL_RADIUS,
                 Constants.BALL_RADIUS, Color.WHITE));
         for (Ball ball : this.balls) {
-            this.comparator.put(ball, BALL_PRIORITY);
             ball.setVelocity(0, Constants.BALL_SPEED);
         }
         int rows = (int) (GAME_RECT.getHeight() / Constants.BLOCK_HEIGHT);
         int cols = (int) (GAME_RECT.getWidth() / Constants.BLOCK_WIDTH);
         for (int i = 0; i < rows; i++) {
                 Color color = Color.getHSBColor(
-                        (float) MathUtils.randomDouble(i, i + 1)  / cols, 1, 0.9f);
+                        (float) MathUtils.randomDouble(getRandom(), i, i + 1)  / cols, 1, 0.9f);
             for (int j = 0; j < cols; j++) {
                 if (i <= j && i > 6 && i < 13) {
                     Block block =
@@ -176,7 +162,6 @@ public class Ass5Game extends Game {
                     block.addHitListener(this.blockRemover);
                     block.addHitListener(this.scoreTracker);
                     this.blocks.add(block);
-                    this.comparator.put(block, BLOCK_PRIORITY);
                     this.remainingBlocks.increase(1);
                 }
             }
@@ -185,9 +170,6 @@ public class Ass5Game extends Game {
                 new Point(GAME_RECT.left(), SCREEN_RECT.bottom()), Color.GRAY));
         this.rectangles.add(new Block(new Point(GAME_RECT.right(), SCREEN_RECT.top()),
                 SCREEN_RECT.bottomRight(), Color.GRAY));
-        for (Block block : this.rectangles) {
-            this.comparator.put(block, RECT_PRIORITY);
-        }
         this.deathBlock = new Block(GAME_RECT.bottomLeft(),
                 new Point(GAME_RECT.right(), SCREEN_RECT.bottom()), Color.RED);
         this.deathBlock.addHitListener(this.ballRemover);
@@ -198,38 +180,37 @@ public class Ass5Game extends Game {
      * This method is called to recreate all the blocks, paddles, and balls.
      */
     public void recreateAll() {
-        this.addSprite(this.background);
+        this.addSprite(this.background, BACKGROUND_PRIORITY);
 
-        this.addSprite(this.gameBorder);
+        this.addSprite(this.gameBorder, BORDER_PRIORITY);
         for (Line line : this.gameBorder.getLines()) {
             this.addCollidable(line);
         }
 
         this.addCollidable(this.paddle);
-        this.addSprite(this.paddle);
+        this.addSprite(this.paddle, PADDLE_PRIORITY);
 
         this.addCollidable(this.rightPaddle);
-        this.addSprite(this.rightPaddle);
+        this.addSprite(this.rightPaddle, PADDLE_PRIORITY);
 
         this.addCollidable(this.leftPaddle);
-        this.addSprite(this.leftPaddle);
+        this.addSprite(this.leftPaddle, PADDLE_PRIORITY);
 
         for (Ball ball : this.balls) {
-            this.addSprite(ball);
+            this.addSprite(ball, BALL_PRIORITY);
             this.addColliding(ball);
         }
 
         for (Block block : this.blocks) {
-            this.addSprite(block);
+            this.addSprite(block, BLOCK_PRIORITY);
             this.addCollidable(block);
         }
 
         for (Block block : this.rectangles) {
-            this.addSprite(block);
+            this.addSprite(block, RECT_PRIORITY);
         }
 
-        this.addSprite(this.score);
-        this.comparator.put(this.score, SCORE_PRIORITY);
+        this.addSprite(this.score, SCORE_PRIORITY);
 
         this.addCollidable(this.deathBlock);
 
@@ -241,36 +222,46 @@ public class Ass5Game extends Game {
      */
     @Override
     public void recalculateCollisions() {
+        this.edges.clear();
+        for (Block block : this.blocks) {
+            this.edges.add(block);
+        }
+        List<Line> added = new ArrayList<>();
+        this.edges.update(new ArrayList<>(), added);
         for (Line line : this.collidables) {
             removeCollidable(line);
         }
         this.collidables.clear();
-        List<Line> lines = new ArrayList<>();
-        for (Block block : new ArrayList<>(this.blocks)) {
-            for (int i = 0; i < block.getNumVertices(); i++) {
-                Line line = block.getLines()[i];
-                if (lines.stream().anyMatch(l -> l.equals(line))) {
-                    lines.remove(lines.stream().filter(l -> l.equals(line))
-                            .findAny().orElseThrow());
-                } else {
-                    lines.add(line);
-                }
-            }
-        }
-        this.collidables.addAll(LineUtils.mergeLines(lines));
+        this.collidables.addAll(added);
         for (Line line : this.collidables) {
             addCollidable(line);
         }
     }
 
     /**
-     * Finds a ball by its last center point.
+     * Updates the collisions after blocks were removed, by replacing only the lines they changed.
      *
-     * @param lastCenterPoint the last center point of the ball
-     * @return an Optional containing the Ball if found, otherwise empty
+     * @param removed the collidables that were removed
      */
-    public Optional<Ball> findBall(Point lastCenterPoint) {
-        return this.balls.stream().filter(b -> b.getLastCenter().equals(lastCenterPoint)).findAny();
+    @Override
+    public void recalculateCollisions(List<Collidable> removed) {
+        for (Collidable c : removed) {
+            if (!(c instanceof Block) || !this.edges.remove((Block) c)) {
+                recalculateCollisions();
+                return;
+            }
+        }
+        List<Line> stale = new ArrayList<>();
+        List<Line> fresh = new ArrayList<>();
+        this.edges.update(stale, fresh);
+        for (Line line : stale) {
+            removeCollidable(line);
+            this.collidables.remove(line);
+        }
+        for (Line line : fresh) {
+            this.collidables.add(line);
+            addCollidable(line);
+        }
     }
 
     /**
@@ -284,6 +275,26 @@ public class Ass5Game extends Game {
         this.blocks.remove(c);
     }
 
+    /**
+     * Hashes the score, the remaining blocks and balls, the paddle and the centers and velocities of the balls.
+     *
+     * @return the hash of the state of the game
+     */
+    @Override
+    public long stateHash() {
+        long hash = super.stateHash();
+        hash = hash * 31 + this.remainingBlocks.getValue();
+        hash = hash * 31 + this.remainingBalls.getValue();
+        hash = hash * 31 + Double.doubleToLongBits(this.paddle.left());
+        for (Ball ball : this.balls) {
+            hash = hash * 31 + Double.doubleToLongBits(ball.getX());
+            hash = hash * 31 + Double.doubleToLongBits(ball.getY());
+            hash = hash * 31 + Double.doubleToLongBits(ball.getVelocity().getX());
+            hash = hash * 31 + Double.doubleToLongBits(ball.getVelocity().getY());
+        }
+        return hash;
+    }
+
     /**
      * Ends the game.
      */
@@ -0,0 +1,152 @@
+package main;
+
+import util.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of the game loop takes, in a histogram per phase.
+ * The histograms can be read at any time, and can also be appended to a file periodically. The file is written
+ * by a daemon thread of the timer from a copy of the histograms, so the threads that record never wait for it.
+ */
+public class FrameTimer {
+    private static final double NANOS_PER_MICRO = 1E3;
+    private final Histogram[] histograms;
+    private ScheduledExecutorService dumper;
+    private ScheduledFuture<?> dump;
+
+    /**
+     * Constructor.
+     */
+    public FrameTimer() {
+        this.histograms = new Histogram[Phase.values().length];
+        for (int i = 0; i < this.histograms.length; i++) {
+            this.histograms[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase the phase that ended
+     * @param start the {@link System#nanoTime()} the phase started at
+     */
+    public void record(Phase phase, long start) {
+        long duration = System.nanoTime() - start;
+        synchronized (this) {
+            this.histograms[phase.ordinal()].record(duration);
+        }
+    }
+
+    /**
+     * @param phase the phase
+     * @return a copy of the histogram of the durations of the phase, in nanoseconds
+     */
+    public synchronized Histogram getHistogram(Phase phase) {
+        return new Histogram(this.histograms[phase.ordinal()]);
+    }
+
+    /**
+     * Removes all the recorded durations.
+     */
+    public synchronized void reset() {
+        for (Histogram histogram : this.histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Appends a report of the histograms to a file every given period. The histograms are not reset, so every
+     * report covers everything since the game started.
+     *
+     * @param file         the file to append to, or null to stop dumping
+     * @param periodMillis the time between two reports, in milliseconds
+     */
+    public synchronized void dumpEvery(Path file, long periodMillis) {
+        if (this.dump != null) {
+            this.dump.cancel(false);
+            this.dump = null;
+        }
+        if (file == null) {
+            return;
+        }
+        if (this.dumper == null) {
+            this.dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "FrameTimer-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.dump = this.dumper.scheduleAtFixedRate(() -> dump(file), periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a report of the count, percentiles and max of every phase, in microseconds, one phase per line
+     */
+    public String report() {
+        return report(snapshot());
+    }
+
+    /**
+     * @return copies of the histograms of all the phases, by the ordinals of the phases
+     */
+    private synchronized Histogram[] snapshot() {
+        Histogram[] copies = new Histogram[this.histograms.length];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new Histogram(this.histograms[i]);
+        }
+        return copies;
+    }
+
+    /**
+     * @param histograms the histograms of all the phases, by the ordinals of the phases
+     * @return a report of the count, percentiles and max of every phase, in microseconds, one phase per line
+     */
+    private static String report(Histogram[] histograms) {
+        StringBuilder report = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = histograms[phase.ordinal()];
+            report.append(String.format("%-9s count=%d p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    phase.name().toLowerCase(), histogram.getCount(),
+                    histogram.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                    histogram.getMax() / NANOS_PER_MICRO));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends a report of a copy of the histograms to a file. Called on the dump thread only.
+     *
+     * @param file the file to append to
+     */
+    private void dump(Path file) {
+        String report = "# " + Instant.now() + System.lineSeparator() + report(snapshot());
+        try {
+            Files.writeString(file, report, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write the frame times to " + file + ": " + e.getMessage());
+            // an exception stops the periodic dump
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The phases of a frame.
+     */
+    public enum Phase {
+        COLLISION, SPRITES, DRAW, SHOW
+    }
+}
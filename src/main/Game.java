@@ -2,26 +2,45 @@ package main;
 
 import biuoop.DrawSurface;
 import biuoop.GUI;
+import biuoop.KeyboardSensor;
 import collision.Collidable;
 import collision.Colliding;
+import collision.HitEventQueue;
+import graphics.BallStore;
+import graphics.DrawRecording;
 import graphics.animation.AnimationThread;
+import graphics.animation.SnapshotBuffer;
 import graphics.Sprite;
 import graphics.SpriteCollection;
 import util.Constants;
 import util.Counter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class that represents a game.
  */
 public abstract class Game implements Runnable {
-    private static int num = 0;
+    private static final AtomicInteger NUM = new AtomicInteger();
     private final SpriteCollection sprites;
     private final GameEnvironment environment;
     private AnimationThread animationThread;
     private GUI gui;
+    private KeyboardSensor keyboard;
+    private boolean stopped;
     private final Counter score;
+    private final FrameTimer timer;
+    private final HitEventQueue hitEvents;
+    private final List<Collidable> removed;
+    private boolean dispatchingHits;
+    private SplittableRandom random;
+    private ReplayLog replayLog;
+    private RecordingKeyboard recorder;
 
     /**
      * Constructor.
@@ -32,12 +51,21 @@ public abstract class Game implements Runnable {
         // Initialize the sprite collection.
         this.sprites = new SpriteCollection(spriteComparator());
         this.score = new Counter(0);
+        this.timer = new FrameTimer();
+        this.hitEvents = new HitEventQueue();
+        this.environment.setHitEventQueue(this.hitEvents);
+        this.removed = new ArrayList<>();
+        this.dispatchingHits = false;
+        this.random = new SplittableRandom();
     }
 
     /**
-     * @return the comparator to sort the sprites for drawing
+     * @return the comparator to sort the sprites for drawing, or null to draw the sprites by the layers they were
+     * added with. sorting happens every frame, so layers should be preferred.
      */
-    public abstract Comparator<Sprite> spriteComparator();
+    public Comparator<Sprite> spriteComparator() {
+        return null;
+    }
 
     /**
      * Clears the game.
@@ -54,6 +82,87 @@ public abstract class Game implements Runnable {
         return this.gui;
     }
 
+    /**
+     * @return the keyboard sensor the game is played with
+     */
+    public KeyboardSensor getKeyboardSensor() {
+        return this.keyboard;
+    }
+
+    /**
+     * @return the timer of the phases of the frames of the game
+     */
+    public FrameTimer getFrameTimer() {
+        return this.timer;
+    }
+
+    /**
+     * @return the queue of the hit events of the collisions of a tick
+     */
+    public HitEventQueue getHitEventQueue() {
+        return this.hitEvents;
+    }
+
+    /**
+     * The random source of the game, which everything random in the game should be drawn from, so a game can
+     * be reproduced from its seed. It is not thread-safe: other threads should use {@link #splitRandom()}.
+     *
+     * @return the random source of the game
+     */
+    public SplittableRandom getRandom() {
+        return this.random;
+    }
+
+    /**
+     * Replaces the random source of the game with one seeded with the given seed.
+     * Must be called before the game is initialized for the whole game to be reproduced.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Splits a new random source off the source of the game, for a worker thread.
+     * The split sources are independent of each other, and reproducible when the game is seeded and split
+     * in the same order.
+     *
+     * @return a new random source
+     */
+    public SplittableRandom splitRandom() {
+        return this.random.split();
+    }
+
+    /**
+     * Records the session into a replay log: the game is seeded with the seed of the log, and the
+     * logged keys are recorded every tick, with the hash of the state after the tick.
+     * Must be called before the game is initialized.
+     *
+     * @param log the log to record into
+     */
+    public void record(ReplayLog log) {
+        this.replayLog = log;
+        setSeed(log.getSeed());
+    }
+
+    /**
+     * @return the log the session is recorded into, or null if it is not recorded
+     */
+    public ReplayLog getReplayLog() {
+        return this.replayLog;
+    }
+
+    /**
+     * A hash of the state of the game, to verify that a replay ended up where the recorded session did.
+     * By default only the score is hashed.
+     *
+     * @return the hash of the state of the game
+     */
+    public long stateHash() {
+        return this.score.getValue();
+    }
+
     /**
      * @return the game environment
      */
@@ -122,14 +231,50 @@ public abstract class Game implements Runnable {
         this.sprites.addSprite(s);
     }
 
+    /**
+     * Adds a sprite to the game, in the given z-layer. Lower layers are drawn first.
+     *
+     * @param s     the sprite to add
+     * @param layer the z-layer of the sprite
+     */
+    public void addSprite(Sprite s, int layer) {
+        this.sprites.addSprite(s, layer);
+    }
+
+    /**
+     * Adds a store of balls to the game, in the given z-layer. The store is both collided and drawn.
+     *
+     * @param store the store to add
+     * @param layer the z-layer of the balls of the store
+     */
+    public void addBallStore(BallStore store, int layer) {
+        this.environment.addBallStore(store);
+        this.sprites.addSprite(store, layer);
+    }
+
+    /**
+     * Removes a store of balls from the game.
+     *
+     * @param store the store to remove
+     */
+    public void removeBallStore(BallStore store) {
+        this.environment.removeBallStore(store);
+        this.sprites.removeSprite(store);
+    }
+
     /**
      * Initializes the game.
      */
     public void initialize() {
         // Initialize the GUI.
-        this.gui = new GUI(this.getClass().getSimpleName() + "-" + num++, Constants.WIDTH, Constants.HEIGHT);
+        this.gui = new GUI(this.getClass().getSimpleName() + "-" + NUM.getAndIncrement(), Constants.WIDTH,
+                Constants.HEIGHT);
+        this.keyboard = this.gui.getKeyboardSensor();
+        startRecording();
         // Initialize the animation thread.
-        this.animationThread = new AnimationThread(this.gui, Constants.FPS) {
+        SnapshotBuffer snapshots = new SnapshotBuffer(Constants.WIDTH, Constants.HEIGHT);
+        this.animationThread = new AnimationThread(this.gui, Constants.FPS, Constants.DECOUPLED_RENDERING
+                ? AnimationThread.LoopMode.DECOUPLED : AnimationThread.LoopMode.FIXED_TIMESTEP) {
             /**
              * Draws the frame on the GUI.
              *
@@ -137,9 +282,44 @@ public abstract class Game implements Runnable {
              */
             @Override
             public void draw(GUI gui) {
+                long start = System.nanoTime();
                 DrawSurface d = gui.getDrawSurface();
                 Game.this.sprites.drawAllOn(d);
+                Game.this.timer.record(FrameTimer.Phase.DRAW, start);
+                start = System.nanoTime();
+                gui.show(d);
+                Game.this.timer.record(FrameTimer.Phase.SHOW, start);
+            }
+
+            /**
+             * Records the sprites as they are after the last update, for the render thread.
+             */
+            @Override
+            public void publish() {
+                long start = System.nanoTime();
+                Game.this.sprites.drawAllOn(snapshots.beginWrite());
+                snapshots.publish();
+                Game.this.timer.record(FrameTimer.Phase.DRAW, start);
+            }
+
+            /**
+             * Draws the latest recorded sprites on the GUI.
+             *
+             * @param gui the GUI to draw on
+             * @return true if new sprites were drawn, false if nothing was recorded since the last time
+             */
+            @Override
+            public boolean render(GUI gui) {
+                DrawRecording recording = snapshots.acquire();
+                if (recording == null) {
+                    return false;
+                }
+                long start = System.nanoTime();
+                DrawSurface d = gui.getDrawSurface();
+                recording.replayOn(d);
                 gui.show(d);
+                Game.this.timer.record(FrameTimer.Phase.SHOW, start);
+                return true;
             }
 
             /**
@@ -147,18 +327,78 @@ public abstract class Game implements Runnable {
              */
             @Override
             public void update() {
-                Game.this.update();
+                Game.this.step();
             }
         };
         createAll();
     }
 
+    /**
+     * Initializes the game without a GUI, so it can only be driven by calling {@link #update()}.
+     *
+     * @param keyboard the keyboard sensor to play the game with
+     */
+    public void initialize(KeyboardSensor keyboard) {
+        this.keyboard = keyboard;
+        startRecording();
+        createAll();
+    }
+
     /**
      * Updates the game each frame.
+     * The hits of the collisions are queued, and dispatched to the hit listeners when all the collisions were
+     * found, before the sprites move.
      */
     public void update() {
-        this.environment.update();
+        long start = System.nanoTime();
+        this.hitEvents.open();
+        try {
+            this.environment.update();
+        } finally {
+            dispatchHits();
+        }
+        this.timer.record(FrameTimer.Phase.COLLISION, start);
+        start = System.nanoTime();
         this.sprites.notifyAllTimePassed();
+        this.timer.record(FrameTimer.Phase.SPRITES, start);
+    }
+
+    /**
+     * Runs a tick of the game: updates it, and records the tick if the session is recorded.
+     */
+    public void step() {
+        update();
+        if (this.recorder != null) {
+            this.recorder.endTick(stateHash());
+        }
+    }
+
+    /**
+     * Reads the keyboard through a recording keyboard, if the session is recorded.
+     */
+    private void startRecording() {
+        if (this.replayLog != null) {
+            this.recorder = new RecordingKeyboard(this.keyboard, this.replayLog);
+            this.keyboard = this.recorder;
+        }
+    }
+
+    /**
+     * Dispatches the queued hits. The collidables the listeners remove are gathered, and the collisions are
+     * recalculated for all of them at once.
+     */
+    private void dispatchHits() {
+        this.dispatchingHits = true;
+        try {
+            this.hitEvents.flush();
+        } finally {
+            this.dispatchingHits = false;
+        }
+        if (!this.removed.isEmpty()) {
+            List<Collidable> removedCollidables = new ArrayList<>(this.removed);
+            this.removed.clear();
+            recalculateCollisions(removedCollidables);
+        }
     }
 
     /**
@@ -177,8 +417,20 @@ public abstract class Game implements Runnable {
      * Stops the game.
      */
     public void stop() {
-        this.animationThread.interrupt();
-        this.gui.close();
+        this.stopped = true;
+        if (this.animationThread != null) {
+            this.animationThread.interrupt();
+        }
+        if (this.gui != null) {
+            this.gui.close();
+        }
+    }
+
+    /**
+     * @return true if the game was stopped, false otherwise
+     */
+    public boolean isStopped() {
+        return this.stopped;
     }
 
     /**
@@ -187,6 +439,33 @@ public abstract class Game implements Runnable {
      */
     public abstract void recalculateCollisions();
 
+    /**
+     * Recalculates the collisions in the game after a collidable was removed from it.
+     * While the hits of a tick are dispatched, the collidable is only gathered, and the collisions are
+     * recalculated once for all the collidables that were removed by the hits.
+     *
+     * @param removed the collidable that was removed
+     */
+    public void recalculateCollisions(Collidable removed) {
+        if (this.dispatchingHits) {
+            if (!this.removed.contains(removed)) {
+                this.removed.add(removed);
+            }
+            return;
+        }
+        recalculateCollisions(Collections.singletonList(removed));
+    }
+
+    /**
+     * Recalculates the collisions in the game after some collidables were removed from it.
+     * By default, everything is recalculated.
+     *
+     * @param removed the collidables that were removed
+     */
+    public void recalculateCollisions(List<Collidable> removed) {
+        recalculateCollisions();
+    }
+
     /**
      * @return the score of the game
      */
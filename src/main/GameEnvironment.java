@@ -1,15 +1,30 @@
 package main;
 
+import collision.CircleCollider;
 import collision.Collidable;
 import collision.Colliding;
 import collision.CollisionInfo;
+import collision.HitContext;
+import collision.HitEventQueue;
+import collision.SpatialHashGrid;
+import geometry.Circle;
 import geometry.Line;
+import geometry.Point;
+import geometry.Rectangle;
+import graphics.BallStore;
+import physics.Velocity;
+import util.Constants;
 import util.DisgustingButYouSaidINeedToHaveItYey;
+import util.MathUtils;
 import util.ValueSet;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * A class that represents a game environment.
@@ -17,13 +32,112 @@ import java.util.Set;
 public class GameEnvironment {
     private final Set<Collidable> collidables;
     private final Set<Colliding> colliding;
+    private final List<BallStore> stores;
+    private final SpatialHashGrid grid;
+    private final List<Collidable> pendingGrid;
+    private final List<Boolean> pendingGridAdds;
+    private final List<Collidable> candidates;
+    private final List<Collidable> contacts;
+    private final Set<Collidable> resting;
+    private final Velocity sweepVelocity;
+    private final Velocity reflected;
+    private final Point contactCenter;
+    private final Point contactVertex;
+    private final List<Point> corners;
+    private final List<List<Collidable>> detected;
+    private List<Collidable> snapshot;
+    private HitEventQueue eventQueue;
+    private BroadPhase broadPhase;
+    private UpdateMode updateMode;
+    private boolean updating;
 
     /**
      * Constructor.
      */
     public GameEnvironment() {
+        this(BroadPhase.GRID);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param broadPhase the way to find the collidables each colliding should be tested against
+     */
+    public GameEnvironment(BroadPhase broadPhase) {
         this.collidables = new ValueSet<>();
         this.colliding = new ValueSet<>();
+        this.stores = new ArrayList<>();
+        this.grid = new SpatialHashGrid(Constants.COLLISION_CELL_SIZE);
+        this.pendingGrid = new ArrayList<>();
+        this.pendingGridAdds = new ArrayList<>();
+        this.candidates = new ArrayList<>();
+        this.contacts = new ArrayList<>();
+        this.resting = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.sweepVelocity = new Velocity(0, 0);
+        this.reflected = new Velocity(0, 0);
+        this.contactCenter = new Point(0, 0);
+        this.contactVertex = new Point(0, 0);
+        this.corners = new ArrayList<>();
+        this.detected = new ArrayList<>();
+        this.snapshot = null;
+        this.eventQueue = null;
+        this.broadPhase = broadPhase;
+        this.updateMode = Constants.PARALLEL_COLLISIONS ? UpdateMode.PARALLEL : UpdateMode.SEQUENTIAL;
+        this.updating = false;
+    }
+
+    /**
+     * @return the broad phase the environment uses
+     */
+    public BroadPhase getBroadPhase() {
+        return this.broadPhase;
+    }
+
+    /**
+     * Sets the broad phase the environment uses.
+     * Both broad phases find the same collisions, in the same order.
+     *
+     * @param broadPhase the broad phase to use
+     */
+    public void setBroadPhase(BroadPhase broadPhase) {
+        this.broadPhase = broadPhase;
+    }
+
+    /**
+     * @return the way the environment updates its colliding objects
+     */
+    public UpdateMode getUpdateMode() {
+        return this.updateMode;
+    }
+
+    /**
+     * Sets the way the environment updates its colliding objects.
+     * Both modes find the same collisions, and apply them in the same order.
+     *
+     * @param updateMode the update mode to use
+     */
+    public void setUpdateMode(UpdateMode updateMode) {
+        this.updateMode = updateMode;
+    }
+
+    /**
+     * @return the queue the hit events of the colliding objects are added to, or null if they are dispatched
+     * right away
+     */
+    public HitEventQueue getHitEventQueue() {
+        return this.eventQueue;
+    }
+
+    /**
+     * Sets the queue the hit events of the colliding objects of the environment are added to.
+     *
+     * @param eventQueue the queue, or null to dispatch the hit events right away
+     */
+    public void setHitEventQueue(HitEventQueue eventQueue) {
+        this.eventQueue = eventQueue;
+        for (Colliding c : this.colliding) {
+            c.getCollider().getContext().setEventQueue(eventQueue);
+        }
     }
 
     /**
@@ -32,7 +146,9 @@ public class GameEnvironment {
      * @param c the collidable to add
      */
     public void addCollidable(Collidable c) {
-        this.collidables.add(c);
+        if (this.collidables.add(c)) {
+            updateGrid(c, true);
+        }
     }
 
     /**
@@ -41,7 +157,29 @@ public class GameEnvironment {
      * @param c the colliding to add
      */
     public void addColliding(Colliding c) {
-        this.colliding.add(c);
+        if (this.colliding.add(c)) {
+            c.getCollider().getContext().setEventQueue(this.eventQueue);
+        }
+    }
+
+    /**
+     * Adds a store of balls to the environment. The balls of the store are collided after the other colliding.
+     *
+     * @param store the store to add
+     */
+    public void addBallStore(BallStore store) {
+        if (!this.stores.contains(store)) {
+            this.stores.add(store);
+        }
+    }
+
+    /**
+     * Removes a store of balls from the environment.
+     *
+     * @param store the store to remove
+     */
+    public void removeBallStore(BallStore store) {
+        this.stores.remove(store);
     }
 
     /**
@@ -49,6 +187,9 @@ public class GameEnvironment {
      */
     public void clearCollidables() {
         this.collidables.clear();
+        this.grid.clear();
+        this.pendingGrid.clear();
+        this.pendingGridAdds.clear();
     }
 
     /**
@@ -56,6 +197,7 @@ public class GameEnvironment {
      */
     public void clearColliding() {
         this.colliding.clear();
+        this.stores.clear();
     }
 
     /**
@@ -64,16 +206,26 @@ public class GameEnvironment {
      * @param c the collidable to remove
      */
     public void removeCollidable(Collidable c) {
-        this.collidables.remove(c);
+        if (this.collidables.remove(c)) {
+            updateGrid(c, false);
+        }
     }
 
     /**
      * Removes a colliding from the environment.
+     * The colliding can also be the view of a ball in one of the stores of the environment.
      *
      * @param c the colliding to remove
      */
     public void removeColliding(Colliding c) {
-        this.colliding.remove(c);
+        if (this.colliding.remove(c)) {
+            return;
+        }
+        for (BallStore store : this.stores) {
+            if (store.remove(c)) {
+                return;
+            }
+        }
     }
 
     /**
@@ -89,15 +241,307 @@ public class GameEnvironment {
      */
     public void update() {
         ArrayList<Colliding> colliding = new ArrayList<>(this.colliding);
-        ArrayList<Collidable> collidables = new ArrayList<>(this.collidables);
-        for (Colliding c : colliding) {
-            for (Collidable collidable : collidables) {
+        ArrayList<BallStore> stores = new ArrayList<>(this.stores);
+        boolean parallel = this.updateMode == UpdateMode.PARALLEL
+                && colliding.size() >= Constants.MIN_PARALLEL_COLLIDING;
+        if (this.broadPhase == BroadPhase.BRUTE_FORCE) {
+            this.snapshot = new ArrayList<>(this.collidables);
+            try {
+                if (parallel) {
+                    detect(colliding);
+                }
+                for (int i = 0; i < colliding.size(); i++) {
+                    Colliding c = colliding.get(i);
+                    if (isContinuous(c)) {
+                        sweep((Circle) c, this.snapshot);
+                    } else {
+                        if (parallel) {
+                            apply(c, this.detected.get(i));
+                        } else {
+                            collide(c, this.snapshot);
+                        }
+                    }
+                }
+                for (BallStore store : stores) {
+                    store.collide(this);
+                }
+            } finally {
+                this.snapshot = null;
+                this.detected.clear();
+            }
+            return;
+        }
+        // the grid is not changed while updating, so every colliding sees the same collidables as in brute force
+        this.updating = true;
+        try {
+            if (parallel) {
+                detect(colliding);
+            }
+            for (int i = 0; i < colliding.size(); i++) {
+                Colliding c = colliding.get(i);
+                if (isContinuous(c)) {
+                    sweep((Circle) c, null);
+                    continue;
+                }
+                if (parallel) {
+                    apply(c, this.detected.get(i));
+                    continue;
+                }
+                this.candidates.clear();
+                findCandidates(c, this.candidates, false);
+                collide(c, this.candidates);
+            }
+            for (BallStore store : stores) {
+                store.collide(this);
+            }
+        } finally {
+            this.candidates.clear();
+            this.detected.clear();
+            this.updating = false;
+            flushGrid();
+        }
+    }
+
+    /**
+     * Finds the collidables every discrete colliding intersects, on many threads at once.
+     * Finding the collisions only reads the colliding objects and the collidables, and nothing changes them
+     * before the collisions are applied: the collidables of the environment do not change while it updates,
+     * and a colliding only changes when its own collisions are applied. So applying the found collisions in order
+     * gives the same results as finding and applying them one colliding at a time.
+     *
+     * @param colliding the colliding objects, in the order their collisions will be applied
+     */
+    private void detect(List<Colliding> colliding) {
+        this.detected.clear();
+        this.detected.addAll(Collections.nCopies(colliding.size(), Collections.emptyList()));
+        IntStream.range(0, colliding.size()).parallel().forEach(i -> {
+            Colliding c = colliding.get(i);
+            if (isContinuous(c)) {
+                return;
+            }
+            List<Collidable> candidates = this.snapshot;
+            if (candidates == null) {
+                candidates = new ArrayList<>();
+                findCandidates(c, candidates, true);
+            }
+            List<Collidable> hits = null;
+            for (Collidable collidable : candidates) {
                 if (c.isIntersecting(collidable)) {
-                    c.getCollider().collide(collidable);
+                    if (hits == null) {
+                        hits = new ArrayList<>();
+                    }
+                    hits.add(collidable);
+                }
+            }
+            if (hits != null) {
+                // every thread sets its own indexes, and the stream finishes before the list is read
+                this.detected.set(i, hits);
+            }
+        });
+    }
+
+    private void collide(Colliding c, List<Collidable> collidables) {
+        for (Collidable collidable : collidables) {
+            if (c.isIntersecting(collidable)) {
+                c.getCollider().collide(collidable);
+            }
+        }
+        c.getCollider().apply();
+    }
+
+    private void apply(Colliding c, List<Collidable> hits) {
+        for (Collidable collidable : hits) {
+            c.getCollider().collide(collidable);
+        }
+        c.getCollider().apply();
+    }
+
+    private static boolean isContinuous(Colliding c) {
+        return c instanceof Circle && ((Circle) c).getCollider().getMode() == CircleCollider.Mode.CONTINUOUS;
+    }
+
+    /**
+     * Moves a circle through its step, stopping at every contact on the way.
+     * The circle is moved to its earliest contact, hits every collidable it touches at that time, and then
+     * continues the rest of the step with its new velocity. Collidables that were just hit are not hit again
+     * at the same place, and after {@link Constants#MAX_BOUNCES_PER_STEP} bounces the rest of the step is dropped.
+     *
+     * @param circle      the circle to move
+     * @param collidables the collidables to collide with, or null to find them in the grid
+     */
+    private void sweep(Circle circle, List<Collidable> collidables) {
+        circle.updateLastCenter();
+        HitContext context = circle.getCollider().getContext();
+        Velocity velocity = this.sweepVelocity;
+        velocity.move(circle.getVelocityX(), circle.getVelocityY());
+        double remaining = 1;
+        this.resting.clear();
+        for (int bounce = 0; bounce <= Constants.MAX_BOUNCES_PER_STEP; bounce++) {
+            double dx = velocity.getX() / Constants.FPS * remaining;
+            double dy = velocity.getY() / Constants.FPS * remaining;
+            double length = Math.sqrt(dx * dx + dy * dy);
+            List<Collidable> candidates = collidables;
+            if (candidates == null) {
+                this.candidates.clear();
+                double r = circle.getRadius() + MathUtils.COMPARISON_THRESHOLD;
+                this.grid.query(Math.min(circle.getX(), circle.getX() + dx) - r,
+                        Math.min(circle.getY(), circle.getY() + dy) - r,
+                        Math.max(circle.getX(), circle.getX() + dx) + r,
+                        Math.max(circle.getY(), circle.getY() + dy) + r, this.candidates);
+                candidates = this.candidates;
+            }
+            double first = Double.POSITIVE_INFINITY;
+            this.contacts.clear();
+            for (Collidable collidable : candidates) {
+                double t = circle.timeOfImpact(collidable, dx, dy);
+                if (t * length <= MathUtils.COMPARISON_THRESHOLD && this.resting.contains(collidable)) {
+                    continue;
+                }
+                if ((t - first) * length < -MathUtils.COMPARISON_THRESHOLD) {
+                    first = t;
+                    this.contacts.clear();
                 }
+                if ((t - first) * length <= MathUtils.COMPARISON_THRESHOLD) {
+                    this.contacts.add(collidable);
+                }
+            }
+            if (this.contacts.isEmpty()) {
+                circle.transform(dx, dy);
+                break;
+            }
+            circle.transform(dx * first, dy * first);
+            double vx = velocity.getX();
+            double vy = velocity.getY();
+            this.contactCenter.move(circle.getX(), circle.getY());
+            int corners = 0;
+            for (Collidable contact : this.contacts) {
+                Velocity hit = contact.hit(context, this.contactCenter, velocity);
+                // at a vertex the normal points from the vertex to the center, and the edges that meet at the
+                // vertex bounce the circle off it only once
+                if (contact.bouncesOffVertices() && circle.closestVertex(contact, this.contactVertex)) {
+                    if (!addCorner(this.contactVertex, corners)) {
+                        continue;
+                    }
+                    corners++;
+                    double nx = circle.getX() - this.contactVertex.getX();
+                    double ny = circle.getY() - this.contactVertex.getY();
+                    double distance = Math.sqrt(nx * nx + ny * ny);
+                    if (distance > 0) {
+                        hit = Line.reflectInto(nx / distance, ny / distance, 1, velocity.getX(), velocity.getY(),
+                                this.reflected);
+                    }
+                }
+                vx += hit.getX() - velocity.getX();
+                vy += hit.getY() - velocity.getY();
+            }
+            velocity.move(vx, vy);
+            circle.setVelocity(velocity);
+            remaining *= 1 - first;
+            this.resting.clear();
+            this.resting.addAll(this.contacts);
+        }
+        this.candidates.clear();
+    }
+
+    /**
+     * Adds a vertex to the corners the circle bounced off in the current bounce, unless it is already one of them.
+     *
+     * @param vertex the vertex to add
+     * @param count  the number of corners the circle already bounced off in the current bounce
+     * @return true if the vertex was added, false if it is already one of the corners
+     */
+    private boolean addCorner(Point vertex, int count) {
+        for (int i = 0; i < count; i++) {
+            if (this.corners.get(i).equals(vertex)) {
+                return false;
+            }
+        }
+        if (count == this.corners.size()) {
+            this.corners.add(new Point(0, 0));
+        }
+        this.corners.get(count).move(vertex.getX(), vertex.getY());
+        return true;
+    }
+
+    /**
+     * Collects the collidables that may touch the given area, or that are within the comparison threshold of it.
+     * While the environment updates, the collidables are the ones it had when the update started.
+     *
+     * @param minX the left side of the area
+     * @param minY the top side of the area
+     * @param maxX the right side of the area
+     * @param maxY the bottom side of the area
+     * @param out  the list to add the collidables to, in the order they were added to the environment
+     */
+    public void query(double minX, double minY, double maxX, double maxY, List<Collidable> out) {
+        if (this.snapshot != null) {
+            out.addAll(this.snapshot);
+        } else if (this.broadPhase == BroadPhase.BRUTE_FORCE) {
+            out.addAll(this.collidables);
+        } else {
+            this.grid.query(minX - MathUtils.COMPARISON_THRESHOLD, minY - MathUtils.COMPARISON_THRESHOLD,
+                    maxX + MathUtils.COMPARISON_THRESHOLD, maxY + MathUtils.COMPARISON_THRESHOLD, out);
+        }
+    }
+
+    /**
+     * Finds the collidables that are close enough to a colliding to possibly intersect it.
+     * For circles, the area swept since their last center is taken into account.
+     *
+     * @param c          the colliding to find the candidates of
+     * @param out        the list to add the candidates to, in the order they were added to the environment
+     * @param concurrent whether other threads may look for candidates at the same time
+     */
+    private void findCandidates(Colliding c, List<Collidable> out, boolean concurrent) {
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+        if (c instanceof Circle) {
+            Circle circle = (Circle) c;
+            minX = Math.min(circle.getX(), circle.getLastX()) - circle.getRadius();
+            minY = Math.min(circle.getY(), circle.getLastY()) - circle.getRadius();
+            maxX = Math.max(circle.getX(), circle.getLastX()) + circle.getRadius();
+            maxY = Math.max(circle.getY(), circle.getLastY()) + circle.getRadius();
+        } else {
+            Rectangle bounds = c.getBounds();
+            minX = bounds.left();
+            minY = bounds.top();
+            maxX = bounds.right();
+            maxY = bounds.bottom();
+        }
+        minX -= MathUtils.COMPARISON_THRESHOLD;
+        minY -= MathUtils.COMPARISON_THRESHOLD;
+        maxX += MathUtils.COMPARISON_THRESHOLD;
+        maxY += MathUtils.COMPARISON_THRESHOLD;
+        if (concurrent) {
+            this.grid.concurrentQuery(minX, minY, maxX, maxY, out);
+        } else {
+            this.grid.query(minX, minY, maxX, maxY, out);
+        }
+    }
+
+    private void updateGrid(Collidable c, boolean add) {
+        if (this.updating) {
+            this.pendingGrid.add(c);
+            this.pendingGridAdds.add(add);
+        } else if (add) {
+            this.grid.add(c);
+        } else {
+            this.grid.remove(c);
+        }
+    }
+
+    private void flushGrid() {
+        for (int i = 0; i < this.pendingGrid.size(); i++) {
+            if (this.pendingGridAdds.get(i)) {
+                this.grid.add(this.pendingGrid.get(i));
+            } else {
+                this.grid.remove(this.pendingGrid.get(i));
             }
-            c.getCollider().apply();
         }
+        this.pendingGrid.clear();
+        this.pendingGridAdds.clear();
     }
 
     /**
@@ -118,4 +562,22 @@ public class GameEnvironment {
         }
         return new CollisionInfo(collidable.getCenter(), collidable);
     }
+
+    /**
+     * The ways to find the collidables each colliding should be tested against.
+     */
+    public enum BroadPhase {
+        BRUTE_FORCE, GRID
+    }
+
+    /**
+     * The ways to update the colliding objects.
+     * In sequential mode every colliding finds its collisions and applies them before the next one.
+     * In parallel mode the collisions of all the discrete colliding objects are first found on many threads,
+     * and then applied (with the hit listeners they trigger) one colliding at a time, in the sequential order.
+     * Parallel mode is only used when there are at least {@link Constants#MIN_PARALLEL_COLLIDING} colliding objects.
+     */
+    public enum UpdateMode {
+        SEQUENTIAL, PARALLEL
+    }
 }
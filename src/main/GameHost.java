@@ -0,0 +1,153 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Runs many independent games without a GUI at once, on a bounded pool of threads.
+ * Every game has its own environment, sprites, score and random source, and is created, initialized and run
+ * entirely on one thread of the pool, so games do not share any state. The host sums the games and ticks it
+ * ran, to measure the throughput of all the threads together.
+ */
+public class GameHost implements AutoCloseable {
+    private final ExecutorService pool;
+    private final int threads;
+    private final AtomicInteger threadCount;
+    private long games;
+    private long ticks;
+    private long elapsedNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param threads the number of games to run at the same time
+     */
+    public GameHost(int threads) {
+        this.threads = threads;
+        this.threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "GameHost-" + this.threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.games = 0;
+        this.ticks = 0;
+        this.elapsedNanos = 0;
+    }
+
+    /**
+     * @return the number of games that run at the same time
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Runs games in which no key is ever pressed, and waits for all of them to end.
+     *
+     * @param count    the number of games to run
+     * @param factory  creates the game of each index, not initialized yet
+     * @param maxTicks the maximal number of ticks to run each game
+     * @return the runners of the games, in the order of their indexes
+     */
+    public List<HeadlessRunner> run(int count, IntFunction<Game> factory, long maxTicks) {
+        return run(count, factory, i -> new ScriptedKeyboard(), maxTicks);
+    }
+
+    /**
+     * Runs games, and waits for all of them to end.
+     * A game ends when it stops or when it ran the given number of ticks. If a game fails, the games that did
+     * not start yet are not run.
+     *
+     * @param count     the number of games to run
+     * @param factory   creates the game of each index, not initialized yet
+     * @param keyboards creates the keyboard of the game of each index
+     * @param maxTicks  the maximal number of ticks to run each game
+     * @return the runners of the games, in the order of their indexes
+     */
+    public List<HeadlessRunner> run(int count, IntFunction<Game> factory, IntFunction<TickingKeyboard> keyboards,
+                                    long maxTicks) {
+        long start = System.nanoTime();
+        List<Future<HeadlessRunner>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(this.pool.submit(() -> {
+                HeadlessRunner runner = new HeadlessRunner(factory.apply(index), keyboards.apply(index));
+                runner.run(maxTicks);
+                return runner;
+            }));
+        }
+        List<HeadlessRunner> runners = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                runners.add(futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the games", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game " + runners.size() + " failed", e.getCause());
+        } finally {
+            for (Future<HeadlessRunner> future : futures) {
+                future.cancel(true);
+            }
+        }
+        synchronized (this) {
+            this.elapsedNanos += System.nanoTime() - start;
+            this.games += count;
+            for (HeadlessRunner runner : runners) {
+                this.ticks += runner.getTicks();
+            }
+        }
+        return runners;
+    }
+
+    /**
+     * @return the number of games that were run so far
+     */
+    public synchronized long getGames() {
+        return this.games;
+    }
+
+    /**
+     * @return the number of ticks that were run so far, in all the games together
+     */
+    public synchronized long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * @return the wall-clock time the runs took so far, in nanoseconds
+     */
+    public synchronized long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * @return the number of games that were run per wall-clock second
+     */
+    public synchronized double getGamesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.games * 1E9 / this.elapsedNanos;
+    }
+
+    /**
+     * @return the number of ticks that were run per wall-clock second, in all the games together
+     */
+    public synchronized double getTicksPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.ticks * 1E9 / this.elapsedNanos;
+    }
+
+    /**
+     * Stops the threads of the host. Games that did not start yet are not run.
+     */
+    @Override
+    public void close() {
+        this.pool.shutdownNow();
+    }
+}
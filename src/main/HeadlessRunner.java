@@ -0,0 +1,83 @@
+package main;
+
+import util.Constants;
+
+/**
+ * Runs a game without a GUI, as fast as the CPU allows.
+ * Nothing is drawn and nothing sleeps, so a game-second takes only as long as its
+ * {@link Constants#FPS} updates take to compute.
+ */
+public class HeadlessRunner {
+    private final Game game;
+    private final TickingKeyboard keyboard;
+    private long ticks;
+    private long elapsedNanos;
+
+    /**
+     * Constructor. The game is initialized without a GUI, with the given keyboard.
+     *
+     * @param game     the game to run
+     * @param keyboard the keyboard to play the game with, which is moved forward every tick
+     */
+    public HeadlessRunner(Game game, TickingKeyboard keyboard) {
+        this.game = game;
+        this.keyboard = keyboard;
+        this.ticks = 0;
+        this.elapsedNanos = 0;
+        game.initialize(keyboard);
+    }
+
+    /**
+     * Runs the game until it stops or until the given number of ticks has passed.
+     *
+     * @param maxTicks the maximal number of ticks to run
+     * @return the number of ticks that were run
+     */
+    public long run(long maxTicks) {
+        long start = System.nanoTime();
+        long ran = 0;
+        while (ran < maxTicks && !this.game.isStopped()) {
+            this.game.step();
+            this.keyboard.tick();
+            ran++;
+        }
+        this.elapsedNanos += System.nanoTime() - start;
+        this.ticks += ran;
+        return ran;
+    }
+
+    /**
+     * @return the game that is run
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * @return the number of ticks that were run so far
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * @return the number of game-seconds that were simulated so far
+     */
+    public double getSimulatedSeconds() {
+        return (double) this.ticks / Constants.FPS;
+    }
+
+    /**
+     * @return the wall-clock time the ticks took so far, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * @return the number of ticks that were run per wall-clock second
+     */
+    public double getTicksPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.ticks * 1E9 / this.elapsedNanos;
+    }
+}
@@ -5,22 +5,131 @@ ID: 326552304
 
 package main;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * The main class.
  */
 public class Main {
     private static Ass5Game game;
+    private static final String HEADLESS = "--headless";
+    private static final String REPLAY = "--replay";
+    private static final String HOST = "--host";
+    private static final String RECORD_PROPERTY = "record";
+    private static final long DEFAULT_HEADLESS_TICKS = 1_000_000;
+    private static final String FRAME_TIMES_PROPERTY = "frametimes";
+    private static final long FRAME_TIMES_PERIOD_MILLIS = 10_000;
+
     /**
      * The main method.
+     * With {@code --headless [ticks]}, the game is run without a GUI as fast as possible, and the
+     * simulation speed is printed.
+     * With {@code --replay <file>}, a recorded session is played without a GUI as fast as possible, and the
+     * simulation speed and whether the replay ended in the recorded state are printed.
+     * With {@code --host <games> [threads] [ticks]}, many games are run without a GUI at once, and the
+     * throughput of all of them together is printed.
+     * With {@code -Dframetimes=<file>}, the frame phase timings are appended to the file every 10 seconds.
+     * With {@code -Drecord=<file>}, the session is recorded, and the replay log is written to the file on exit.
      *
      * @param args the command line arguments
      */
     public static void main(String[] args) {
+        if (args.length > 1 && args[0].equals(HOST)) {
+            host(Integer.parseInt(args[1]),
+                    args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors(),
+                    args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_HEADLESS_TICKS);
+            return;
+        }
         Main.game = new Ass5Game();
+        String frameTimes = System.getProperty(FRAME_TIMES_PROPERTY);
+        if (frameTimes != null) {
+            Main.game.getFrameTimer().dumpEvery(Path.of(frameTimes), FRAME_TIMES_PERIOD_MILLIS);
+        }
+        if (args.length > 1 && args[0].equals(REPLAY)) {
+            replay(Path.of(args[1]));
+            return;
+        }
+        String record = System.getProperty(RECORD_PROPERTY);
+        if (record != null) {
+            record(Path.of(record));
+        }
+        if (args.length > 0 && args[0].equals(HEADLESS)) {
+            long ticks = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_HEADLESS_TICKS;
+            HeadlessRunner runner = new HeadlessRunner(Main.game, new ScriptedKeyboard());
+            runner.run(ticks);
+            System.out.printf("%d ticks (%.1f game-seconds) in %.3f s, %.0f ticks/s, score %d%n",
+                    runner.getTicks(), runner.getSimulatedSeconds(), runner.getElapsedNanos() / 1E9,
+                    runner.getTicksPerSecond(), Main.game.getScore().getValue());
+            System.out.print(Main.game.getFrameTimer().report());
+            return;
+        }
         Main.game.initialize();
         Main.game.run();
     }
 
+    /**
+     * Runs many games at once, and prints their throughput.
+     *
+     * @param games    the number of games to run
+     * @param threads  the number of games to run at the same time
+     * @param maxTicks the maximal number of ticks to run each game
+     */
+    private static void host(int games, int threads, long maxTicks) {
+        try (GameHost host = new GameHost(threads)) {
+            List<HeadlessRunner> runners = host.run(games, i -> new Ass5Game(), maxTicks);
+            long score = 0;
+            for (HeadlessRunner runner : runners) {
+                score += runner.getGame().getScore().getValue();
+            }
+            System.out.printf("%d games on %d threads, %d ticks in %.3f s, %.1f games/s, %.0f ticks/s, "
+                            + "average score %.1f%n", host.getGames(), host.getThreads(), host.getTicks(),
+                    host.getElapsedNanos() / 1E9, host.getGamesPerSecond(), host.getTicksPerSecond(),
+                    (double) score / games);
+        }
+    }
+
+    /**
+     * Records the session of the game, and writes the log when the program exits.
+     *
+     * @param file the file to write the log to
+     */
+    private static void record(Path file) {
+        ReplayLog log = new ReplayLog(System.nanoTime());
+        Main.game.record(log);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                log.write(file);
+            } catch (IOException e) {
+                System.err.println("Could not write the replay to " + file + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Plays a recorded session on the game.
+     *
+     * @param file the file to read the log from
+     */
+    private static void replay(Path file) {
+        ReplayLog log;
+        try {
+            log = ReplayLog.read(file);
+        } catch (IOException e) {
+            System.err.println("Could not read the replay from " + file + ": " + e.getMessage());
+            return;
+        }
+        ReplayPlayer player = new ReplayPlayer(Main.game, log);
+        boolean verified = player.play();
+        HeadlessRunner runner = player.getRunner();
+        System.out.printf("%d ticks (%.1f game-seconds) in %.3f s, %.0f ticks/s, score %d, %s%n",
+                runner.getTicks(), runner.getSimulatedSeconds(), runner.getElapsedNanos() / 1E9,
+                runner.getTicksPerSecond(), Main.game.getScore().getValue(),
+                verified ? "final state verified" : "final state MISMATCH");
+        System.out.print(Main.game.getFrameTimer().report());
+    }
+
     /**
      * Gets the game instance.
      *
@@ -0,0 +1,60 @@
+package main;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * A keyboard sensor that reads another keyboard and records the keys of a replay log into the log.
+ * The logged keys are read once per tick, the first time one of them is asked for, so every read in a tick
+ * agrees with the others and with what is recorded.
+ */
+public class RecordingKeyboard implements KeyboardSensor {
+    private final KeyboardSensor source;
+    private final ReplayLog log;
+    private int bits;
+    private boolean read;
+
+    /**
+     * Constructor.
+     *
+     * @param source the keyboard to read
+     * @param log    the log to record into
+     */
+    public RecordingKeyboard(KeyboardSensor source, ReplayLog log) {
+        this.source = source;
+        this.log = log;
+        this.bits = 0;
+        this.read = false;
+    }
+
+    /**
+     * @param key the key to check
+     * @return true if the key is held in the current tick, false otherwise
+     */
+    @Override
+    public boolean isPressed(String key) {
+        int bit = this.log.indexOfKey(key);
+        if (bit < 0) {
+            return this.source.isPressed(key);
+        }
+        if (!this.read) {
+            this.bits = 0;
+            for (int i = 0; i < this.log.getKeyCount(); i++) {
+                if (this.source.isPressed(this.log.getKey(i))) {
+                    this.bits |= 1 << i;
+                }
+            }
+            this.read = true;
+        }
+        return (this.bits & (1 << bit)) != 0;
+    }
+
+    /**
+     * Records the keys that were held in the tick that ended, and starts the next tick.
+     *
+     * @param hash the hash of the state of the game after the tick
+     */
+    public void endTick(long hash) {
+        this.log.append(this.read ? this.bits : 0, hash);
+        this.read = false;
+    }
+}
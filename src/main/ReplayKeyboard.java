@@ -0,0 +1,57 @@
+package main;
+
+/**
+ * A keyboard sensor that plays the keys of a replay log, one tick at a time.
+ * After the last tick of the log, no key is held.
+ */
+public class ReplayKeyboard implements TickingKeyboard {
+    private final ReplayLog log;
+    private long tick;
+    private int run;
+    private int tickInRun;
+
+    /**
+     * Constructor.
+     *
+     * @param log the log to play
+     */
+    public ReplayKeyboard(ReplayLog log) {
+        this.log = log;
+        this.tick = 0;
+        this.run = 0;
+        this.tickInRun = 0;
+    }
+
+    /**
+     * Moves the replay one tick forward.
+     */
+    @Override
+    public void tick() {
+        this.tick++;
+        if (this.run < this.log.getRunCount() && ++this.tickInRun == this.log.getRunLength(this.run)) {
+            this.run++;
+            this.tickInRun = 0;
+        }
+    }
+
+    /**
+     * @return the current tick of the replay
+     */
+    @Override
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @param key the key to check
+     * @return true if the key was held at the current tick of the replay, false otherwise
+     */
+    @Override
+    public boolean isPressed(String key) {
+        int bit = this.log.indexOfKey(key);
+        if (bit < 0 || this.run >= this.log.getRunCount()) {
+            return false;
+        }
+        return (this.log.getRunBits(this.run) & (1 << bit)) != 0;
+    }
+}
@@ -0,0 +1,239 @@
+package main;
+
+import biuoop.KeyboardSensor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A log of a game session, with everything needed to play it again exactly: the seed of the random numbers,
+ * and which keys were held at every tick.
+ * The keys held at a tick are kept as bits, one bit per key of the log, and consecutive ticks with the same
+ * bits are kept as a single run, so a log of a long session is small.
+ * The log also keeps the hash of the state of the game after its last tick, to verify a replay against.
+ * All the methods are synchronized, so a log can be saved by another thread while the game is recorded into it.
+ */
+public class ReplayLog {
+    private static final int MAGIC = 0x52504C31;
+    private static final int MAX_KEYS = Byte.SIZE;
+    private static final int INITIAL_CAPACITY = 64;
+    private final long seed;
+    private final String[] keys;
+    private byte[] runBits;
+    private int[] runLengths;
+    private int runCount;
+    private long ticks;
+    private long finalHash;
+
+    /**
+     * Constructor for a log of the left and right keys.
+     *
+     * @param seed the seed of the random numbers of the session
+     */
+    public ReplayLog(long seed) {
+        this(seed, KeyboardSensor.LEFT_KEY, KeyboardSensor.RIGHT_KEY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param seed the seed of the random numbers of the session
+     * @param keys the keys to log, at most 8
+     */
+    public ReplayLog(long seed, String... keys) {
+        if (keys.length > MAX_KEYS) {
+            throw new IllegalArgumentException("A replay log can hold at most " + MAX_KEYS + " keys");
+        }
+        this.seed = seed;
+        this.keys = keys.clone();
+        this.runBits = new byte[INITIAL_CAPACITY];
+        this.runLengths = new int[INITIAL_CAPACITY];
+        this.runCount = 0;
+        this.ticks = 0;
+        this.finalHash = 0;
+    }
+
+    /**
+     * @return the seed of the random numbers of the session
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @return the number of logged keys
+     */
+    public int getKeyCount() {
+        return this.keys.length;
+    }
+
+    /**
+     * @param bit the bit of a key in the bits of a tick
+     * @return the key
+     */
+    public String getKey(int bit) {
+        return this.keys[bit];
+    }
+
+    /**
+     * @param key the key
+     * @return the bit of the key in the bits of a tick, or -1 if the key is not logged
+     */
+    public int indexOfKey(String key) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a tick to the log.
+     *
+     * @param bits the keys held at the tick, as bits
+     * @param hash the hash of the state of the game after the tick
+     */
+    public synchronized void append(int bits, long hash) {
+        if (this.runCount > 0 && this.runBits[this.runCount - 1] == (byte) bits
+                && this.runLengths[this.runCount - 1] < Integer.MAX_VALUE) {
+            this.runLengths[this.runCount - 1]++;
+        } else {
+            addRun((byte) bits, 1);
+        }
+        this.ticks++;
+        this.finalHash = hash;
+    }
+
+    /**
+     * Adds a run to the end of the log, growing the arrays of the runs if they are full.
+     *
+     * @param bits   the keys held in the ticks of the run, as bits
+     * @param length the number of ticks in the run
+     */
+    private void addRun(byte bits, int length) {
+        if (this.runCount == this.runBits.length) {
+            this.runBits = Arrays.copyOf(this.runBits, this.runCount * 2);
+            this.runLengths = Arrays.copyOf(this.runLengths, this.runCount * 2);
+        }
+        this.runBits[this.runCount] = bits;
+        this.runLengths[this.runCount] = length;
+        this.runCount++;
+    }
+
+    /**
+     * @return the number of ticks in the log
+     */
+    public synchronized long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * @return the hash of the state of the game after the last tick
+     */
+    public synchronized long getFinalHash() {
+        return this.finalHash;
+    }
+
+    /**
+     * @return the number of runs of ticks with the same bits
+     */
+    public synchronized int getRunCount() {
+        return this.runCount;
+    }
+
+    /**
+     * @param run the index of the run
+     * @return the keys held in the ticks of the run, as bits
+     */
+    public synchronized int getRunBits(int run) {
+        return this.runBits[run] & 0xFF;
+    }
+
+    /**
+     * @param run the index of the run
+     * @return the number of ticks in the run
+     */
+    public synchronized int getRunLength(int run) {
+        return this.runLengths[run];
+    }
+
+    /**
+     * Writes the log to a file, replacing it if it exists.
+     *
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(this.seed);
+            out.writeByte(this.keys.length);
+            for (String key : this.keys) {
+                out.writeUTF(key);
+            }
+            out.writeLong(this.ticks);
+            out.writeLong(this.finalHash);
+            out.writeInt(this.runCount);
+            for (int i = 0; i < this.runCount; i++) {
+                out.writeByte(this.runBits[i]);
+                out.writeInt(this.runLengths[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a log from a file.
+     *
+     * @param file the file to read from
+     * @return the log
+     * @throws IOException if the file could not be read, or is not a valid replay log
+     */
+    public static ReplayLog read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a replay log");
+            }
+            long seed = in.readLong();
+            int keyCount = in.readUnsignedByte();
+            if (keyCount > MAX_KEYS) {
+                throw new IOException(file + " has " + keyCount + " keys, but a replay log holds at most " + MAX_KEYS);
+            }
+            String[] keys = new String[keyCount];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = in.readUTF();
+            }
+            ReplayLog log = new ReplayLog(seed, keys);
+            log.ticks = in.readLong();
+            log.finalHash = in.readLong();
+            int runCount = in.readInt();
+            if (runCount < 0) {
+                throw new IOException(file + " has a negative number of runs");
+            }
+            // the runs are added as they are read, so a corrupt count cannot allocate more than the file holds
+            long total = 0;
+            for (int i = 0; i < runCount; i++) {
+                byte bits = in.readByte();
+                int length = in.readInt();
+                if (length <= 0) {
+                    throw new IOException(file + " has a run of " + length + " ticks");
+                }
+                log.addRun(bits, length);
+                total += length;
+            }
+            if (total != log.ticks) {
+                throw new IOException(file + " has " + log.ticks + " ticks, but its runs add up to " + total);
+            }
+            return log;
+        } catch (EOFException e) {
+            throw new IOException(file + " ends before the end of the replay log", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package main;
+
+/**
+ * Plays a replay log on a game without a GUI, as fast as the CPU allows, and verifies that the game ends up in
+ * the state it was recorded in.
+ */
+public class ReplayPlayer {
+    private final ReplayLog log;
+    private final HeadlessRunner runner;
+
+    /**
+     * Constructor. The game is seeded with the seed of the log, and initialized without a GUI, with the keys
+     * of the log.
+     *
+     * @param game the game to play the log on, not initialized yet
+     * @param log  the log to play
+     */
+    public ReplayPlayer(Game game, ReplayLog log) {
+        this.log = log;
+        game.setSeed(log.getSeed());
+        this.runner = new HeadlessRunner(game, new ReplayKeyboard(log));
+    }
+
+    /**
+     * Plays all the ticks of the log.
+     *
+     * @return true if the game ended up in the state it was recorded in, false otherwise
+     */
+    public boolean play() {
+        this.runner.run(this.log.getTicks() - this.runner.getTicks());
+        return isVerified();
+    }
+
+    /**
+     * @return true if all the ticks of the log were played, and the game is in the state it was recorded in
+     */
+    public boolean isVerified() {
+        return this.runner.getTicks() == this.log.getTicks()
+                && this.runner.getGame().stateHash() == this.log.getFinalHash();
+    }
+
+    /**
+     * @return the runner that plays the log, with the timing of the replay
+     */
+    public HeadlessRunner getRunner() {
+        return this.runner;
+    }
+}
@@ -0,0 +1,84 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A keyboard sensor that plays a script of key presses instead of reading a real keyboard.
+ * Each press holds a key for a range of ticks, and the sensor is moved forward one tick at a time.
+ */
+public class ScriptedKeyboard implements TickingKeyboard {
+    private final List<Press> presses;
+    private long tick;
+
+    /**
+     * Constructor for an empty script, in which no key is ever pressed.
+     */
+    public ScriptedKeyboard() {
+        this.presses = new ArrayList<>();
+        this.tick = 0;
+    }
+
+    /**
+     * Holds a key for a range of ticks.
+     *
+     * @param key      the key to hold
+     * @param fromTick the first tick the key is held at
+     * @param toTick   the first tick the key is released at
+     */
+    public void press(String key, long fromTick, long toTick) {
+        this.presses.add(new Press(key, fromTick, toTick));
+    }
+
+    /**
+     * Moves the script one tick forward.
+     */
+    @Override
+    public void tick() {
+        this.tick++;
+    }
+
+    /**
+     * @return the current tick of the script
+     */
+    @Override
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @param key the key to check
+     * @return true if the script holds the key at the current tick, false otherwise
+     */
+    @Override
+    public boolean isPressed(String key) {
+        for (Press press : this.presses) {
+            if (press.fromTick <= this.tick && this.tick < press.toTick && press.key.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A key held for a range of ticks.
+     */
+    private static final class Press {
+        private final String key;
+        private final long fromTick;
+        private final long toTick;
+
+        /**
+         * Constructor.
+         *
+         * @param key      the key to hold
+         * @param fromTick the first tick the key is held at
+         * @param toTick   the first tick the key is released at
+         */
+        private Press(String key, long fromTick, long toTick) {
+            this.key = key;
+            this.fromTick = fromTick;
+            this.toTick = toTick;
+        }
+    }
+}
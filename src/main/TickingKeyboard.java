@@ -0,0 +1,19 @@
+package main;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * A keyboard sensor that is not read from a real keyboard, but moved forward one tick at a time, after every
+ * update of the game.
+ */
+public interface TickingKeyboard extends KeyboardSensor {
+    /**
+     * Moves the keyboard one tick forward.
+     */
+    void tick();
+
+    /**
+     * @return the current tick of the keyboard
+     */
+    long getTick();
+}
@@ -12,6 +12,20 @@ public interface Physical {
      */
     Velocity getVelocity();
 
+    /**
+     * @return the x coordinate of the velocity of the object
+     */
+    default double getVelocityX() {
+        return getVelocity().getX();
+    }
+
+    /**
+     * @return the y coordinate of the velocity of the object
+     */
+    default double getVelocityY() {
+        return getVelocity().getY();
+    }
+
     /**
      * @param dx the x coordinate of the new point
      * @param dy the y coordinate of the new point
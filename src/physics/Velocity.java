@@ -64,6 +64,16 @@ public class Velocity extends Point implements Movable, Physical {
         return new Point(p.getX() + this.getX(), p.getY() + this.getY());
     }
 
+    /**
+     * Moves a point by the velocity, without creating a point.
+     *
+     * @param p the point to move
+     * @return the point after moving
+     */
+    public Point applyToPointInPlace(Point p) {
+        return p.addInPlace(this.getX(), this.getY());
+    }
+
     /**
      * Moves the object by the given dx and dy.
      *
@@ -74,6 +84,16 @@ public class Velocity extends Point implements Movable, Physical {
         return new Velocity(this.getX() / fps, this.getY() / fps);
     }
 
+    /**
+     * Moves a point by one frame of the velocity, without creating a point.
+     *
+     * @param p   the point to move
+     * @param fps the frames per second
+     */
+    public void applyStep(Movable p, int fps) {
+        p.transform(this.getX() / fps, this.getY() / fps);
+    }
+
 
     /**
      * @return The velocity of the object
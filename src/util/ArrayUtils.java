@@ -1,5 +1,7 @@
 package util;
 
+import java.util.SplittableRandom;
+
 /**
  * This class contains utility methods for array manipulation.
  */
@@ -42,8 +44,18 @@ public class ArrayUtils {
      * @param arr the array to shuffle
      */
     public static void shuffleInt(int[] arr) {
+        shuffleInt(arr, MathUtils.threadRandom());
+    }
+
+    /**
+     * Shuffles an array of integers.
+     *
+     * @param arr    the array to shuffle
+     * @param random the random source to draw from
+     */
+    public static void shuffleInt(int[] arr, SplittableRandom random) {
         for (int i = 0; i < arr.length; i++) {
-            int j = (int) (Math.random() * arr.length);
+            int j = random.nextInt(arr.length);
             int tmp = arr[j];
             arr[j] = arr[i];
             arr[i] = tmp;
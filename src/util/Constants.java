@@ -17,4 +17,12 @@ public class Constants {
     public static final int BLOCK_WIDTH = 40;
     public static final int BLOCK_HEIGHT = 20;
     public static final double PADDLE_BOUNCING_RANGE = 0.66;
+    public static final int BOUNCE_ANGLE_STEPS = 1024;
+    public static final int COLLISION_CELL_SIZE = 80;
+    public static final int MAX_UPDATES_PER_FRAME = 5;
+    public static final boolean CONTINUOUS_COLLISIONS = false;
+    public static final int MAX_BOUNCES_PER_STEP = 8;
+    public static final boolean PARALLEL_COLLISIONS = false;
+    public static final int MIN_PARALLEL_COLLIDING = 32;
+    public static final boolean DECOUPLED_RENDERING = false;
 }
@@ -0,0 +1,130 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values (such as durations in nanoseconds), with a bounded relative error.
+ * Values are counted in buckets whose width grows with the value, so recording is a few shifts and an
+ * array increment, and the histogram takes a fixed amount of memory no matter how many values it holds.
+ * Small values are counted exactly, and larger ones within about 3%.
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 2 - SUB_BITS) * SUB_BUCKETS;
+    private final long[] counts;
+    private long count;
+    private long max;
+    private long total;
+
+    /**
+     * Constructor for an empty histogram.
+     */
+    public Histogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the histogram to copy
+     */
+    public Histogram(Histogram other) {
+        this.counts = other.counts.clone();
+        this.count = other.count;
+        this.max = other.max;
+        this.total = other.total;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        this.counts[bucket(v)]++;
+        this.count++;
+        this.total += v;
+        if (v > this.max) {
+            this.max = v;
+        }
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.max = 0;
+        this.total = 0;
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the largest recorded value, or 0 if there are none
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return the mean of the recorded values, or 0 if there are none
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.total / this.count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return a value that at least the given percent of the recorded values are not larger than,
+     * or 0 if there are none
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * @param value a non-negative value
+     * @return the index of the bucket the value is counted in
+     */
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @param bucket the index of a bucket
+     * @return the largest value that is counted in the bucket
+     */
+    private static long highest(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long top = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
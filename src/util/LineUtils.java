@@ -1,9 +1,12 @@
 package util;
 
 import geometry.Line;
+import geometry.LineKey;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The utils for the Line class.
@@ -18,10 +21,65 @@ public class LineUtils {
      * @return If the lines semi-intersect
      */
     public static boolean wcc(Line first, Line second) {
-        return PointUtils.isClockwise(first.getStart(), first.getEnd(), second.getStart())
-                != PointUtils.isClockwiseOrCollinear(first.getStart(), first.getEnd(), second.getEnd())
-                || PointUtils.isClockwiseOrCollinear(first.getStart(), first.getEnd(), second.getStart())
-                != PointUtils.isClockwise(first.getStart(), first.getEnd(), second.getEnd());
+        return wcc(first, second.startX(), second.startY(), second.endX(), second.endY());
+    }
+
+    /**
+     * Checks if the two ends of a segment are on different sides of a line.
+     * If at least one end is on the line, it is considered to be on the opposite side of the other end.
+     *
+     * @param first The line
+     * @param x3    The x coordinate of the start of the segment
+     * @param y3    The y coordinate of the start of the segment
+     * @param x4    The x coordinate of the end of the segment
+     * @param y4    The y coordinate of the end of the segment
+     * @return If the line and the segment semi-intersect
+     */
+    public static boolean wcc(Line first, double x3, double y3, double x4, double y4) {
+        double x1 = first.startX();
+        double y1 = first.startY();
+        double x2 = first.endX();
+        double y2 = first.endY();
+        return PointUtils.isClockwise(x1, y1, x2, y2, x3, y3)
+                != PointUtils.isClockwiseOrCollinear(x1, y1, x2, y2, x4, y4)
+                || PointUtils.isClockwiseOrCollinear(x1, y1, x2, y2, x3, y3)
+                != PointUtils.isClockwise(x1, y1, x2, y2, x4, y4);
+    }
+
+    /**
+     * Checks if the two ends of a line are on different sides of a segment.
+     * If at least one end is on the segment, it is considered to be on the opposite side of the other end.
+     *
+     * @param x1     The x coordinate of the start of the segment
+     * @param y1     The y coordinate of the start of the segment
+     * @param x2     The x coordinate of the end of the segment
+     * @param y2     The y coordinate of the end of the segment
+     * @param second The line
+     * @return If the segment and the line semi-intersect
+     */
+    public static boolean wcc(double x1, double y1, double x2, double y2, Line second) {
+        double x3 = second.startX();
+        double y3 = second.startY();
+        double x4 = second.endX();
+        double y4 = second.endY();
+        return PointUtils.isClockwise(x1, y1, x2, y2, x3, y3)
+                != PointUtils.isClockwiseOrCollinear(x1, y1, x2, y2, x4, y4)
+                || PointUtils.isClockwiseOrCollinear(x1, y1, x2, y2, x3, y3)
+                != PointUtils.isClockwise(x1, y1, x2, y2, x4, y4);
+    }
+
+    /**
+     * Checks if a segment and a line intersect, the same way {@link Line#isIntersecting(Line)} does.
+     *
+     * @param x1     The x coordinate of the start of the segment
+     * @param y1     The y coordinate of the start of the segment
+     * @param x2     The x coordinate of the end of the segment
+     * @param y2     The y coordinate of the end of the segment
+     * @param second The line
+     * @return True if the segment and the line intersect, false otherwise
+     */
+    public static boolean areIntersecting(double x1, double y1, double x2, double y2, Line second) {
+        return wcc(x1, y1, x2, y2, second) && wcc(second, x1, y1, x2, y2);
     }
 
     /**
@@ -58,47 +116,92 @@ public class LineUtils {
     }
 
     /**
-     * Merges lines that are close enough to each other.
-     * Lines are considered mergable if they are parallel and their distance is less than a certain threshold.
+     * Merges collinear lines that touch or overlap into single lines.
+     * The lines are grouped by the line they lie on, each group is sorted by the position of the lines along it,
+     * and then every run of touching lines is merged in a single pass, so merging takes O(n log n).
+     * The merged lines are directed along their {@link LineKey}, and are returned group by group, in the order
+     * each group first appears in the given lines.
      *
      * @param lines The list of lines to merge
      * @return A new list of merged lines
      */
     public static List<Line> mergeLines(List<Line> lines) {
-        boolean merged = true;
-
-        while (merged) {
-            merged = false;
-            List<Line> newLines = new ArrayList<>();
-            boolean[] used = new boolean[lines.size()];
-
-            for (int i = 0; i < lines.size(); i++) {
-                if (used[i]) {
-                    continue;
-                }
-
-                Line l1 = lines.get(i);
-
-                for (int j = 0; j < lines.size(); j++) {
-                    if (i == j || used[j]) {
-                        continue;
-                    }
-
-                    Line l2 = lines.get(j);
-                    if (l1.isMergable(l2)) {
-                        l1 = l1.merge(l2);
-                        used[j] = true;
-                        merged = true;
-                    }
+        Map<LineKey, List<Segment>> keyed = new ValueMap<>(true);
+        List<List<Segment>> groups = new ArrayList<>();
+        for (Line line : lines) {
+            LineKey key = new LineKey(line);
+            List<Segment> group = keyed.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                keyed.put(key, group);
+                groups.add(group);
+            }
+            group.add(new Segment(key, line));
+        }
+        List<Line> merged = new ArrayList<>();
+        for (List<Segment> group : groups) {
+            group.sort(Segment.BY_START);
+            Segment run = group.get(0);
+            for (int i = 1; i < group.size(); i++) {
+                Segment next = group.get(i);
+                if (next.start > run.end + MathUtils.COMPARISON_THRESHOLD) {
+                    merged.add(run.toLine());
+                    run = next;
+                } else if (next.end > run.end) {
+                    run.extend(next);
                 }
-
-                newLines.add(l1);
-                used[i] = true;
             }
+            merged.add(run.toLine());
+        }
+        return merged;
+    }
 
-            lines = newLines;
+    /**
+     * A line with the positions of its ends along the line it lies on, ordered from the lower one.
+     */
+    private static final class Segment {
+        private static final Comparator<Segment> BY_START = Comparator.comparingDouble(s -> s.start);
+        private final double startX;
+        private final double startY;
+        private final double start;
+        private double endX;
+        private double endY;
+        private double end;
+
+        /**
+         * Constructor.
+         *
+         * @param key  the line the segment lies on
+         * @param line the line of the segment
+         */
+        private Segment(LineKey key, Line line) {
+            double first = key.project(line.startX(), line.startY());
+            double second = key.project(line.endX(), line.endY());
+            boolean forward = first <= second;
+            this.startX = forward ? line.startX() : line.endX();
+            this.startY = forward ? line.startY() : line.endY();
+            this.start = forward ? first : second;
+            this.endX = forward ? line.endX() : line.startX();
+            this.endY = forward ? line.endY() : line.startY();
+            this.end = forward ? second : first;
         }
 
-        return lines;
+        /**
+         * Extends the segment to the end of another segment.
+         *
+         * @param other the segment to extend to
+         */
+        private void extend(Segment other) {
+            this.endX = other.endX;
+            this.endY = other.endY;
+            this.end = other.end;
+        }
+
+        /**
+         * @return the segment as a line, from its lower end to its higher one
+         */
+        private Line toLine() {
+            return new Line(this.startX, this.startY, this.endX, this.endY);
+        }
     }
 }
@@ -1,11 +1,14 @@
 package util;
 
+import java.util.SplittableRandom;
+
 /**
  * Utils for the Math subject.
  */
 public class MathUtils {
     // in the Geometry check it was 1E-5, but in the assignment orders it was 1E-7 - so I chose randomly...
     public static final double COMPARISON_THRESHOLD = 1E-5;
+    private static final ThreadLocal<SplittableRandom> THREAD_RANDOM = ThreadLocal.withInitial(SplittableRandom::new);
 
     /**
      * @param a The first number
@@ -24,12 +27,31 @@ public class MathUtils {
         return a == 0 ? 0 : a > 0 ? 1 : -1;
     }
 
+    /**
+     * The random source of the calling thread, for the methods that are not given one. Every thread has its own
+     * source, so threads do not contend on it, but its numbers cannot be reproduced.
+     *
+     * @return the random source of the calling thread
+     */
+    public static SplittableRandom threadRandom() {
+        return THREAD_RANDOM.get();
+    }
+
     /**
      * @param max The maximum number
      * @return A random integer between 0 and max
      */
     public static int randomInteger(int max) {
-        return randomInteger(0, max);
+        return randomInteger(threadRandom(), max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param max    the maximum number
+     * @return A random integer between 0 and max
+     */
+    public static int randomInteger(SplittableRandom random, int max) {
+        return randomInteger(random, 0, max);
     }
 
     /**
@@ -38,7 +60,17 @@ public class MathUtils {
      * @return A random integer between min and max
      */
     public static int randomInteger(int min, int max) {
-        return (int) Math.floor(randomDouble(min, max));
+        return randomInteger(threadRandom(), min, max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param min    the minimum number
+     * @param max    the maximum number
+     * @return A random integer between min and max
+     */
+    public static int randomInteger(SplittableRandom random, int min, int max) {
+        return (int) Math.floor(randomDouble(random, min, max));
     }
 
     /**
@@ -46,7 +78,16 @@ public class MathUtils {
      * @return A random float between 0 and max
      */
     public static float randomFloat(int max) {
-        return randomFloat(0, max);
+        return randomFloat(threadRandom(), max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param max    the maximum number
+     * @return A random float between 0 and max
+     */
+    public static float randomFloat(SplittableRandom random, int max) {
+        return randomFloat(random, 0, max);
     }
 
     /**
@@ -55,7 +96,17 @@ public class MathUtils {
      * @return A random float between min and max
      */
     public static float randomFloat(float min, float max) {
-        return (float) randomDouble(min, max);
+        return randomFloat(threadRandom(), min, max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param min    the minimum number
+     * @param max    the maximum number
+     * @return A random float between min and max
+     */
+    public static float randomFloat(SplittableRandom random, float min, float max) {
+        return (float) randomDouble(random, min, max);
     }
 
     /**
@@ -63,7 +114,16 @@ public class MathUtils {
      * @return A random double between 0 and max
      */
     public static double randomDouble(double max) {
-        return randomDouble(0, max);
+        return randomDouble(threadRandom(), max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param max    the maximum number
+     * @return A random double between 0 and max
+     */
+    public static double randomDouble(SplittableRandom random, double max) {
+        return randomDouble(random, 0, max);
     }
 
     /**
@@ -72,6 +132,16 @@ public class MathUtils {
      * @return A random double between min and max
      */
     public static double randomDouble(double min, double max) {
-        return min + (Math.random() * (max - min));
+        return randomDouble(threadRandom(), min, max);
+    }
+
+    /**
+     * @param random the random source to draw from
+     * @param min    the minimum number
+     * @param max    the maximum number
+     * @return A random double between min and max
+     */
+    public static double randomDouble(SplittableRandom random, double min, double max) {
+        return min + (random.nextDouble() * (max - min));
     }
 }
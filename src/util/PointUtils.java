@@ -15,8 +15,20 @@ public class PointUtils {
      * @return If the points are clockwise
      */
     public static boolean isClockwise(Point p1, Point p2, Point p3) {
-        return (p2.getX() - p1.getX()) * (p3.getY() - p1.getY())
-                > (p2.getY() - p1.getY()) * (p3.getX() - p1.getX());
+        return isClockwise(p1.getX(), p1.getY(), p2.getX(), p2.getY(), p3.getX(), p3.getY());
+    }
+
+    /**
+     * @param x1 The x coordinate of the first point
+     * @param y1 The y coordinate of the first point
+     * @param x2 The x coordinate of the second point
+     * @param y2 The y coordinate of the second point
+     * @param x3 The x coordinate of the third point
+     * @param y3 The y coordinate of the third point
+     * @return If the points are clockwise
+     */
+    public static boolean isClockwise(double x1, double y1, double x2, double y2, double x3, double y3) {
+        return (x2 - x1) * (y3 - y1) > (y2 - y1) * (x3 - x1);
     }
 
     /**
@@ -26,7 +38,19 @@ public class PointUtils {
      * @return If the points are clockwise or collinear
      */
     public static boolean isClockwiseOrCollinear(Point p1, Point p2, Point p3) {
-        return (p2.getX() - p1.getX()) * (p3.getY() - p1.getY())
-                >= (p2.getY() - p1.getY()) * (p3.getX() - p1.getX());
+        return isClockwiseOrCollinear(p1.getX(), p1.getY(), p2.getX(), p2.getY(), p3.getX(), p3.getY());
+    }
+
+    /**
+     * @param x1 The x coordinate of the first point
+     * @param y1 The y coordinate of the first point
+     * @param x2 The x coordinate of the second point
+     * @param y2 The y coordinate of the second point
+     * @param x3 The x coordinate of the third point
+     * @param y3 The y coordinate of the third point
+     * @return If the points are clockwise or collinear
+     */
+    public static boolean isClockwiseOrCollinear(double x1, double y1, double x2, double y2, double x3, double y3) {
+        return (x2 - x1) * (y3 - y1) >= (y2 - y1) * (x3 - x1);
     }
 }
@@ -0,0 +1,109 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hash index that finds the stored value that is equal to a given {@link Tolerant} value.
+ * Values are bucketed by the grid cell of their anchor, and a lookup checks the cell of the
+ * looked up value and its neighbours, so values that are equal but fall on different sides of
+ * a cell border are still found.
+ *
+ * @param <E> the type of the values in the index
+ */
+public class ToleranceIndex<E> {
+    private static final double CELL_SIZE = 2 * MathUtils.COMPARISON_THRESHOLD;
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+    private final Map<Long, List<E>> buckets;
+
+    /**
+     * Constructor.
+     */
+    public ToleranceIndex() {
+        this.buckets = new HashMap<>();
+    }
+
+    /**
+     * @param value the value to look for
+     * @return the stored value that is equal to the given one, or null if there is none
+     * (or if the given value is not {@link Tolerant})
+     */
+    public E find(Object value) {
+        if (!(value instanceof Tolerant)) {
+            return null;
+        }
+        Tolerant tolerant = (Tolerant) value;
+        long cellX = cell(tolerant.anchorX());
+        long cellY = cell(tolerant.anchorY());
+        for (long x = cellX - 1; x <= cellX + 1; x++) {
+            for (long y = cellY - 1; y <= cellY + 1; y++) {
+                List<E> bucket = this.buckets.get(key(x, y));
+                if (bucket == null) {
+                    continue;
+                }
+                for (E e : bucket) {
+                    if (tolerant.tolerantEquals(e)) {
+                        return e;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a value to the index. The value must be {@link Tolerant} and must not move while in the index.
+     *
+     * @param value the value to add
+     */
+    public void add(E value) {
+        Tolerant tolerant = (Tolerant) value;
+        this.buckets.computeIfAbsent(key(cell(tolerant.anchorX()), cell(tolerant.anchorY())),
+                k -> new ArrayList<>(1)).add(value);
+    }
+
+    /**
+     * Removes a stored value (the same instance) from the index.
+     *
+     * @param value the value to remove
+     * @return true if the value was in the index, false otherwise
+     */
+    public boolean remove(Object value) {
+        if (!(value instanceof Tolerant)) {
+            return false;
+        }
+        Tolerant tolerant = (Tolerant) value;
+        Long key = key(cell(tolerant.anchorX()), cell(tolerant.anchorY()));
+        List<E> bucket = this.buckets.get(key);
+        if (bucket == null) {
+            return false;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == value) {
+                bucket.remove(i);
+                if (bucket.isEmpty()) {
+                    this.buckets.remove(key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the values from the index.
+     */
+    public void clear() {
+        this.buckets.clear();
+    }
+
+    private static long cell(double coordinate) {
+        return (long) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static Long key(long x, long y) {
+        return x * MIX ^ y;
+    }
+}
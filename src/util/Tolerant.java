@@ -0,0 +1,24 @@
+package util;
+
+/**
+ * An object whose equality is defined up to {@link MathUtils#COMPARISON_THRESHOLD}.
+ * Equal objects must have anchors that are at most the threshold apart on each axis,
+ * which lets them be found by hashing the anchor to a grid.
+ */
+public interface Tolerant {
+    /**
+     * @return the x coordinate of the anchor of the object
+     */
+    double anchorX();
+
+    /**
+     * @return the y coordinate of the anchor of the object
+     */
+    double anchorY();
+
+    /**
+     * @param other the object to compare to
+     * @return true if the objects are equal up to the comparison threshold, false otherwise
+     */
+    boolean tolerantEquals(Object other);
+}
@@ -0,0 +1,63 @@
+package util;
+
+/**
+ * A table of the cosine and sine of evenly spaced angles in a range, to look them up without computing them.
+ * Angles between the entries of the table are interpolated linearly, and angles outside the range are clamped
+ * to it.
+ */
+public class TrigTable {
+    private final double start;
+    private final double step;
+    private final double[] cos;
+    private final double[] sin;
+
+    /**
+     * Constructor.
+     *
+     * @param start the first angle of the range, in radians
+     * @param end   the last angle of the range, in radians
+     * @param steps the number of steps between the first and last angles
+     */
+    public TrigTable(double start, double end, int steps) {
+        if (steps <= 0 || !(end > start)) {
+            throw new IllegalArgumentException("A trig table needs a non-empty range and at least one step");
+        }
+        this.start = start;
+        this.step = (end - start) / steps;
+        this.cos = new double[steps + 1];
+        this.sin = new double[steps + 1];
+        for (int i = 0; i <= steps; i++) {
+            double angle = start + i * this.step;
+            this.cos[i] = Math.cos(angle);
+            this.sin[i] = Math.sin(angle);
+        }
+    }
+
+    /**
+     * @param angle the angle, in radians
+     * @return the cosine of the angle
+     */
+    public double cos(double angle) {
+        return lookup(this.cos, angle);
+    }
+
+    /**
+     * @param angle the angle, in radians
+     * @return the sine of the angle
+     */
+    public double sin(double angle) {
+        return lookup(this.sin, angle);
+    }
+
+    /**
+     * @param values the values of the entries of the table
+     * @param angle  the angle, in radians
+     * @return the value at the angle, interpolated between the entries around it
+     */
+    private double lookup(double[] values, double angle) {
+        double position = Math.max(0, Math.min(values.length - 1, (angle - this.start) / this.step));
+        int index = Math.min((int) position, values.length - 2);
+        double fraction = position - index;
+        return values[index] + (values[index + 1] - values[index]) * fraction;
+    }
+}
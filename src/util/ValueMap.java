@@ -10,18 +10,69 @@ import java.util.function.Function;
 
 /**
  * A map that does not allow duplicate values (defined by equals).
+ * A tolerant map compares {@link Tolerant} keys (such as points and lines) up to
+ * {@link MathUtils#COMPARISON_THRESHOLD}: every key is first canonicalized to the equal key already in
+ * the map through a {@link ToleranceIndex}, so lookups take expected constant time.
  *
  * @param <K> the key type
  * @param <V> the value type
  */
 public class ValueMap<K, V> implements Map<K, V> {
     private final HashMap<K, V> map;
+    private final ToleranceIndex<K> index;
 
     /**
      * Constructor.
      */
     public ValueMap() {
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tolerant whether {@link Tolerant} keys are compared up to the comparison threshold.
+     *                 Tolerant keys must not move while they are in a tolerant map.
+     */
+    public ValueMap(boolean tolerant) {
         this.map = new HashMap<>();
+        this.index = tolerant ? new ToleranceIndex<>() : null;
+    }
+
+    /**
+     * @param key the key to canonicalize
+     * @return the key in the map that is equal to the given key, or the given key if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T canonical(T key) {
+        if (this.index == null || !(key instanceof Tolerant)) {
+            return key;
+        }
+        K found = this.index.find(key);
+        while (found != null && !this.map.containsKey(found)) {
+            // the key was removed through one of the views
+            this.index.remove(found);
+            found = this.index.find(key);
+        }
+        return found == null ? key : (T) found;
+    }
+
+    /**
+     * Keeps the index in sync with the map after an operation on a canonical key.
+     *
+     * @param key the canonical key the operation was done on
+     * @param had whether the map had the key before the operation
+     */
+    private void sync(K key, boolean had) {
+        if (this.index == null || !(key instanceof Tolerant)) {
+            return;
+        }
+        boolean has = this.map.containsKey(key);
+        if (has && !had) {
+            this.index.add(key);
+        } else if (had && !has) {
+            this.index.remove(key);
+        }
     }
 
     /**
@@ -46,9 +97,7 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public boolean containsKey(Object key) {
-        Ref<Object> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.containsKey(ref.get());
+        return this.map.containsKey(canonical(key));
     }
 
 
@@ -67,9 +116,7 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V get(Object key) {
-        Ref<Object> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.get(ref.get());
+        return this.map.get(canonical(key));
     }
 
     /**
@@ -80,9 +127,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V put(K key, V value) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.put(ref.get(), value);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.put(k, value);
+        sync(k, had);
+        return result;
     }
 
     /**
@@ -99,9 +148,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V remove(Object key) {
-        Ref<Object> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.remove(ref.get());
+        Object k = canonical(key);
+        if (this.index != null) {
+            this.index.remove(k);
+        }
+        return this.map.remove(k);
     }
 
     /**
@@ -122,6 +173,9 @@ public class ValueMap<K, V> implements Map<K, V> {
     @Override
     public void clear() {
         this.map.clear();
+        if (this.index != null) {
+            this.index.clear();
+        }
     }
 
     /**
@@ -159,9 +213,7 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V getOrDefault(Object key, V defaultValue) {
-        Ref<Object> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.getOrDefault(ref.get(), defaultValue);
+        return this.map.getOrDefault(canonical(key), defaultValue);
     }
 
     /**
@@ -196,9 +248,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V putIfAbsent(K key, V value) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.putIfAbsent(ref.get(), value);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.putIfAbsent(k, value);
+        sync(k, had);
+        return result;
     }
 
     /**
@@ -210,9 +264,12 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public boolean remove(Object key, Object value) {
-        Ref<Object> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.remove(ref.get(), value);
+        Object k = canonical(key);
+        boolean removed = this.map.remove(k, value);
+        if (removed && this.index != null) {
+            this.index.remove(k);
+        }
+        return removed;
     }
 
     /**
@@ -226,9 +283,7 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public boolean replace(K key, V oldValue, V newValue) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.replace(ref.get(), oldValue, newValue);
+        return this.map.replace(canonical(key), oldValue, newValue);
     }
 
     /**
@@ -245,9 +300,7 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V replace(K key, V value) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.replace(ref.get(), value);
+        return this.map.replace(canonical(key), value);
     }
 
     /**
@@ -261,9 +314,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.computeIfAbsent(ref.get(), mappingFunction);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.computeIfAbsent(k, mappingFunction);
+        sync(k, had);
+        return result;
     }
 
     /**
@@ -277,9 +332,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.computeIfPresent(ref.get(), remappingFunction);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.computeIfPresent(k, remappingFunction);
+        sync(k, had);
+        return result;
     }
 
     /**
@@ -294,9 +351,11 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.compute(ref.get(), remappingFunction);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.compute(k, remappingFunction);
+        sync(k, had);
+        return result;
     }
 
     /**
@@ -316,8 +375,10 @@ public class ValueMap<K, V> implements Map<K, V> {
      */
     @Override
     public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
-        Ref<K> ref = new Ref<>(key);
-        keySet().stream().filter(e -> e.equals(key)).findAny().ifPresent(ref::set);
-        return this.map.merge(ref.get(), value, remappingFunction);
+        K k = canonical(key);
+        boolean had = this.map.containsKey(k);
+        V result = this.map.merge(k, value, remappingFunction);
+        sync(k, had);
+        return result;
     }
 }
@@ -1,8 +1,8 @@
 package util;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.function.Consumer;
@@ -12,17 +12,44 @@ import java.util.stream.Stream;
 
 /**
  * A set that does not allow duplicate values (defined by equals).
+ * The values are kept in insertion order, and are hashed so adding, looking up and removing a value
+ * take expected constant time.
+ * A tolerant set compares {@link Tolerant} values (such as points and lines) up to
+ * {@link MathUtils#COMPARISON_THRESHOLD}, and hashes them with a {@link ToleranceIndex}.
  *
  * @param <E> the type of objects that are saved in the set
  */
 public class ValueSet<E> implements Set<E> {
-    private final ArrayList<E> list;
+    private final LinkedHashSet<E> values;
+    private final ToleranceIndex<E> index;
 
     /**
      * Constructor.
      */
     public ValueSet() {
-        this.list = new ArrayList<>();
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tolerant whether {@link Tolerant} values are compared up to the comparison threshold.
+     *                 Tolerant values must not move while they are in a tolerant set.
+     */
+    public ValueSet(boolean tolerant) {
+        this.values = new LinkedHashSet<>();
+        this.index = tolerant ? new ToleranceIndex<>() : null;
+    }
+
+    /**
+     * @param o the object to look for
+     * @return the value in the set that is equal to the object, or null if there is none
+     */
+    private E find(Object o) {
+        if (this.index != null && o instanceof Tolerant) {
+            return this.index.find(o);
+        }
+        return null;
     }
 
     /**
@@ -36,7 +63,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public void forEach(Consumer<? super E> action) {
-        this.list.forEach(action);
+        this.values.forEach(action);
     }
 
     /**
@@ -49,7 +76,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public <T> T[] toArray(IntFunction<T[]> generator) {
-        return this.list.toArray(generator);
+        return this.values.toArray(generator);
     }
 
     /**
@@ -63,7 +90,15 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean removeIf(Predicate<? super E> filter) {
-        return this.list.removeIf(filter);
+        boolean changed = false;
+        Iterator<E> iterator = this.iterator();
+        while (iterator.hasNext()) {
+            if (filter.test(iterator.next())) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        return changed;
     }
 
     /**
@@ -73,7 +108,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public Stream<E> stream() {
-        return this.list.stream();
+        return this.values.stream();
     }
 
     /**
@@ -84,7 +119,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public Stream<E> parallelStream() {
-        return this.list.parallelStream();
+        return this.values.parallelStream();
     }
 
     /**
@@ -96,7 +131,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public int size() {
-        return this.list.size();
+        return this.values.size();
     }
 
     /**
@@ -106,7 +141,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean isEmpty() {
-        return this.list.isEmpty();
+        return this.values.isEmpty();
     }
 
     /**
@@ -120,7 +155,10 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean contains(Object o) {
-        return this.list.contains(o);
+        if (this.index != null && o instanceof Tolerant) {
+            return find(o) != null;
+        }
+        return this.values.contains(o);
     }
 
     /**
@@ -132,7 +170,30 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public Iterator<E> iterator() {
-        return this.list.iterator();
+        Iterator<E> iterator = this.values.iterator();
+        if (this.index == null) {
+            return iterator;
+        }
+        return new Iterator<>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                this.last = iterator.next();
+                return this.last;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                ValueSet.this.index.remove(this.last);
+            }
+        };
     }
 
     /**
@@ -145,7 +206,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public Object[] toArray() {
-        return this.list.toArray();
+        return this.values.toArray();
     }
 
     /**
@@ -162,7 +223,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public <T> T[] toArray(T[] a) {
-        return this.list.toArray(a);
+        return this.values.toArray(a);
     }
 
     /**
@@ -181,10 +242,13 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean add(E e) {
-        if (!this.list.contains(e)) {
-            return this.list.add(e);
+        if (this.index != null && e instanceof Tolerant) {
+            if (find(e) != null) {
+                return false;
+            }
+            this.index.add(e);
         }
-        return false;
+        return this.values.add(e);
     }
 
     /**
@@ -202,9 +266,15 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean remove(Object o) {
-        Ref<Object> ref = new Ref<>(o);
-        this.list.stream().filter(e -> e.equals(o)).findAny().ifPresent(ref::set);
-        return this.list.remove(ref.get());
+        if (this.index != null && o instanceof Tolerant) {
+            E e = find(o);
+            if (e == null) {
+                return false;
+            }
+            this.index.remove(e);
+            return this.values.remove(e);
+        }
+        return this.values.remove(o);
     }
 
     /**
@@ -218,7 +288,12 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean containsAll(Collection<?> c) {
-        return this.list.containsAll(c);
+        for (Object e : c) {
+            if (!this.contains(e)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -256,14 +331,7 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public boolean retainAll(Collection<?> c) {
-        boolean changed = false;
-        for (E e : this.list) {
-            if (!c.contains(e)) {
-                this.remove(e);
-                changed = true;
-            }
-        }
-        return changed;
+        return this.removeIf(e -> !c.contains(e));
     }
 
     /**
@@ -293,7 +361,10 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public void clear() {
-        this.list.clear();
+        this.values.clear();
+        if (this.index != null) {
+            this.index.clear();
+        }
     }
 
     /**
@@ -303,6 +374,6 @@ public class ValueSet<E> implements Set<E> {
      */
     @Override
     public Spliterator<E> spliterator() {
-        return this.list.spliterator();
+        return this.values.spliterator();
     }
 }